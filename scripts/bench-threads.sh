@@ -0,0 +1,73 @@
+#!/usr/bin/env bash
+# Compares platform-thread and virtual-thread request execution (see docs/benchmarks/virtual-threads.md).
+#
+# Needs: a running Postgres (docker compose up -d db), `hey` (https://github.com/rakyll/hey), jq,
+# and an existing user: BENCH_EMAIL / BENCH_PASSWORD.
+set -euo pipefail
+
+: "${BENCH_EMAIL:?set BENCH_EMAIL to an existing user}"
+: "${BENCH_PASSWORD:?set BENCH_PASSWORD}"
+: "${JWT_SECRET:?set JWT_SECRET}"
+
+BASE_URL="${BASE_URL:-http://localhost:8080}"
+SCENARIOS="${SCENARIOS:-tasks login}"
+CONCURRENCY="${CONCURRENCY:-400}"
+# Below the BCrypt queue (auth.password.queue-capacity, 64), so the run measures hashing and not 503s
+LOGIN_CONCURRENCY="${LOGIN_CONCURRENCY:-50}"
+DURATION="${DURATION:-60s}"
+WARMUP="${WARMUP:-15s}"
+ENDPOINT="${ENDPOINT:-/api/v1/tasks?page=0&size=20}"
+OUT_DIR="${OUT_DIR:-target/bench}"
+
+# One load generator is one IP and one user: replace the rate-limit policies with a single unlimited
+# one, or both scenarios would mostly measure 429s
+APP_ARGS=(
+  '--rate-limit.policies[0].name=bench'
+  '--rate-limit.policies[0].path=/**'
+  '--rate-limit.policies[0].limit=2147483647'
+  '--rate-limit.policies[0].window=1m'
+)
+
+mkdir -p "$OUT_DIR"
+./mvnw -B -q -DskipTests package
+JAR=$(ls target/backend-*.jar | grep -v plain | head -n 1)
+LOGIN_BODY="{\"email\":\"$BENCH_EMAIL\",\"password\":\"$BENCH_PASSWORD\"}"
+
+# One hey run of a scenario for the given duration
+load() {
+  local scenario="$1" duration="$2" token="$3"
+  case "$scenario" in
+    tasks) hey -z "$duration" -c "$CONCURRENCY" -H "Authorization: Bearer $token" "$BASE_URL$ENDPOINT" ;;
+    login) hey -z "$duration" -c "$LOGIN_CONCURRENCY" -m POST -T application/json -d "$LOGIN_BODY" "$BASE_URL/api/v1/auth/login" ;;
+    *) echo "unknown scenario: $scenario" >&2; return 1 ;;
+  esac
+}
+
+run_mode() {
+  local mode="$1" virtual="$2"
+  echo "== $mode (spring.threads.virtual.enabled=$virtual)"
+
+  VIRTUAL_THREADS="$virtual" java -jar "$JAR" "${APP_ARGS[@]}" > "$OUT_DIR/$mode-app.log" 2>&1 &
+  local pid=$!
+  trap 'kill $pid 2>/dev/null || true' RETURN
+
+  until curl -sf "$BASE_URL/actuator/health" > /dev/null; do sleep 1; done
+
+  local token
+  token=$(curl -sf -H 'Content-Type: application/json' -d "$LOGIN_BODY" "$BASE_URL/api/v1/auth/login" | jq -r .token)
+
+  for scenario in $SCENARIOS; do
+    local out="$OUT_DIR/$mode-$scenario.txt"
+    load "$scenario" "$WARMUP" "$token" > /dev/null
+    load "$scenario" "$DURATION" "$token" > "$out"
+
+    printf '%s\t%s\tthroughput=%s req/s\tp99=%s s\tnon2xx=%s\n' "$mode" "$scenario" \
+      "$(awk '/Requests\/sec/ {print $2}' "$out")" \
+      "$(awk '/ 99% in/ {print $3}' "$out")" \
+      "$(awk '/^ *\[[0-9]+\]/ && $1 !~ /^\[2/ {n += $2} END {print n + 0}' "$out")" | tee -a "$OUT_DIR/summary.tsv"
+  done
+}
+
+: > "$OUT_DIR/summary.tsv"
+run_mode platform false
+run_mode virtual true
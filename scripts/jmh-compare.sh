@@ -0,0 +1,53 @@
+#!/usr/bin/env bash
+# Compares two JMH JSON result files (./mvnw -Pjmh test-compile exec:exec, see docs/benchmarks/jmh.md).
+#
+# Usage: scripts/jmh-compare.sh BASELINE.json CANDIDATE.json [THRESHOLD_PERCENT]
+# A benchmark regresses when it is slower by more than THRESHOLD_PERCENT (default 10) and the two
+# 99.9% confidence intervals do not overlap. Exits 1 if any benchmark regressed.
+# Needs: jq.
+set -euo pipefail
+
+BASELINE="${1:?usage: $0 BASELINE.json CANDIDATE.json [THRESHOLD_PERCENT]}"
+CANDIDATE="${2:?usage: $0 BASELINE.json CANDIDATE.json [THRESHOLD_PERCENT]}"
+THRESHOLD="${3:-10}"
+
+report=$(jq -r -n --slurpfile base "$BASELINE" --slurpfile cand "$CANDIDATE" --argjson threshold "$THRESHOLD" '
+  # benchmark name plus its @Param values identify a result
+  def key: .benchmark + (if (.params // {}) == {} then "" else " " + (.params | to_entries | map("\(.key)=\(.value)") | join(",")) end);
+  def num: if type == "number" then . elif . == "NaN" or . == null then null else tonumber end;
+  def index: map({key: key, value: .}) | from_entries;
+
+  ($base[0] | index) as $b
+  | ($cand[0] | index) as $c
+  | ["BENCHMARK", "MODE", "BASELINE", "CANDIDATE", "UNIT", "CHANGE", "VERDICT"],
+    ( ($b | keys) + ($c | keys) | unique[] as $k
+      | if ($b[$k] == null) then [$k, $c[$k].mode, "-", ($c[$k].primaryMetric.score | tostring), $c[$k].primaryMetric.scoreUnit, "-", "new"]
+        elif ($c[$k] == null) then [$k, $b[$k].mode, ($b[$k].primaryMetric.score | tostring), "-", $b[$k].primaryMetric.scoreUnit, "-", "removed"]
+        else
+          $b[$k] as $x | $c[$k] as $y
+          | ($x.primaryMetric.score) as $old
+          | ($y.primaryMetric.score) as $new
+          | (($new - $old) / $old * 100) as $change
+          # throughput: higher is better; avgt, sample, ss: lower is better
+          | (if $x.mode == "thrpt" then -$change else $change end) as $worse
+          | ($x.primaryMetric.scoreConfidence | map(num)) as $xc
+          | ($y.primaryMetric.scoreConfidence | map(num)) as $yc
+          | (if ($xc | any(. == null)) or ($yc | any(. == null)) then false
+             else ($xc[1] >= $yc[0] and $yc[1] >= $xc[0]) end) as $overlap
+          | [$k, $x.mode, ($old * 1000 | round / 1000 | tostring), ($new * 1000 | round / 1000 | tostring),
+             $x.primaryMetric.scoreUnit, (($change * 10 | round / 10 | tostring) + "%"),
+             (if $worse > $threshold and ($overlap | not) then "REGRESSION"
+              elif $worse < -$threshold and ($overlap | not) then "improved"
+              else "~" end)]
+        end )
+  | @tsv')
+
+if command -v column >/dev/null; then
+  column -t -s $'\t' <<<"$report"
+else
+  echo "$report"
+fi
+
+if grep -q $'\tREGRESSION$' <<<"$report"; then
+  exit 1
+fi
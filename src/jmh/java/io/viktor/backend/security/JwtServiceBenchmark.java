@@ -0,0 +1,59 @@
+package io.viktor.backend.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.viktor.backend.users.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issuing (login) and verification (every authenticated request). verifiedCacheSize=0 measures a
+ * full signature check on each parse; the default size measures the verified-token cache hit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class JwtServiceBenchmark {
+
+    @Param({"0", "50000"})
+    int verifiedCacheSize;
+
+    private JwtService jwtService;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        String secret = Base64.getEncoder().encodeToString(new byte[32]);
+        jwtService = new JwtService(secret, 3_600_000, verifiedCacheSize, new SimpleMeterRegistry());
+
+        user = new User("bench@example.com", "{noop}unused", User.Role.USER);
+        ReflectionTestUtils.setField(user, "id", 42L);
+        token = jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public AuthenticatedUser parse() {
+        return jwtService.parse(token);
+    }
+}
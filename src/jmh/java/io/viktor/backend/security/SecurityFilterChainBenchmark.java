@@ -0,0 +1,118 @@
+package io.viktor.backend.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.viktor.backend.security.concurrency.AdaptiveConcurrencyFilter;
+import io.viktor.backend.security.concurrency.AdaptiveConcurrencyProperties;
+import io.viktor.backend.security.ratelimit.RateLimitFilter;
+import io.viktor.backend.security.ratelimit.RateLimitProperties;
+import io.viktor.backend.security.ratelimit.RateLimitStoreFactory;
+import io.viktor.backend.users.User;
+import io.viktor.backend.users.UserRepository;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The application filters in SecurityConfig order (metrics token, adaptive concurrency, JWT, rate limit)
+ * in front of a no-op servlet. The revocation lookup is served from its cache after the first call,
+ * and limits are set high enough that no request is rejected: this measures the admitted-request path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class SecurityFilterChainBenchmark {
+
+    @Param({"bearer", "anonymous"})
+    String caller;
+
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private FilterChain chain;
+    private Blackhole blackhole;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        this.blackhole = blackhole;
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        String secret = Base64.getEncoder().encodeToString(new byte[32]);
+        JwtService jwtService = new JwtService(secret, 3_600_000, 50_000, registry);
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findTokenVersionById(42L)).thenReturn(Optional.of(0L));
+        TokenRevocationCache revocationCache = new TokenRevocationCache(userRepository, Duration.ofHours(1), 1_000);
+
+        List<Filter> filters = List.of(
+                new MetricsTokenFilter("metrics-token", ""),
+                new AdaptiveConcurrencyFilter(new AdaptiveConcurrencyProperties(
+                        true, 100, 10, 1000, 2.0, 0.2, 0.7,
+                        List.of("/actuator/health", "POST /api/v1/auth/login"),
+                        List.of("GET /api/v1/tasks/export")), registry),
+                new JwtAuthFilter(jwtService, revocationCache, registry, false),
+                new RateLimitFilter(
+                        new RateLimitProperties(List.of(
+                                new RateLimitProperties.Policy("login", "/api/v1/auth/login", List.of("POST"),
+                                        Integer.MAX_VALUE, null, Duration.ofMinutes(1), RateLimitProperties.Key.IP),
+                                new RateLimitProperties.Policy("api", "/api/**", null,
+                                        Integer.MAX_VALUE, Map.of(), Duration.ofMinutes(1), null))),
+                        new RateLimitStoreFactory(mock(DataSource.class), registry, "local", 100_000, 0.1),
+                        registry));
+        chain = compose(filters, (req, res) -> this.blackhole.consume(SecurityContextHolder.getContext().getAuthentication()));
+
+        request = new MockHttpServletRequest("GET", "/api/v1/tasks");
+        request.setRemoteAddr("10.0.0.1");
+        if (caller.equals("bearer")) {
+            User user = new User("bench@example.com", "{noop}unused", User.Role.USER);
+            ReflectionTestUtils.setField(user, "id", 42L);
+            request.addHeader("Authorization", "Bearer " + jwtService.generateToken(user));
+        }
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public void doFilter() throws Exception {
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private static FilterChain compose(List<Filter> filters, FilterChain last) {
+        FilterChain next = last;
+        for (int i = filters.size() - 1; i >= 0; i--) {
+            Filter filter = filters.get(i);
+            FilterChain downstream = next;
+            next = (req, res) -> filter.doFilter(req, res, downstream);
+        }
+        return next;
+    }
+}
@@ -0,0 +1,106 @@
+package io.viktor.backend.tasks;
+
+import io.viktor.backend.tasks.dto.TaskResponse;
+import io.viktor.backend.users.User;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One page of GET /api/v1/tasks?userId= read through Hibernate, as managed Task entities mapped with
+ * TaskService.toResponse versus the constructor projection TaskRepository uses. The session is set up
+ * like a Spring read-only transaction (read-only entities, manual flush). Runs against in-memory H2,
+ * so the numbers isolate Hibernate's share; run with -prof gc and compare gc.alloc.rate.norm.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class TaskReadAllocationBenchmark {
+
+    private static final String ORDER = " where t.user.id = :userId order by t.createdAt desc, t.id desc";
+
+    @Param({"20", "100"})
+    int pageSize;
+
+    private SessionFactory sessionFactory;
+    private Long userId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(User.class)
+                .addAnnotatedClass(Task.class)
+                .setProperty("hibernate.connection.url", "jdbc:h2:mem:tasks;DB_CLOSE_DELAY=-1")
+                .setProperty("hibernate.hbm2ddl.auto", "create")
+                .buildSessionFactory();
+
+        sessionFactory.inTransaction(session -> {
+            // Flyway gives it a default in Postgres (V9); the entity never writes it
+            session.createNativeMutationQuery("alter table users alter column token_version set default 0").executeUpdate();
+            User owner = new User("bench@example.com", "{noop}unused", User.Role.USER);
+            session.persist(owner);
+            for (int i = 0; i < 500; i++) {
+                session.persist(new Task("Task number " + i + " with a realistic title", i % 3 == 0, owner));
+            }
+            userId = owner.getId();
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public List<TaskResponse> entities() {
+        try (Session session = readOnlySession()) {
+            List<Task> tasks = session.createSelectionQuery("select t from Task t" + ORDER, Task.class)
+                    .setParameter("userId", userId)
+                    .setMaxResults(pageSize)
+                    .getResultList();
+            List<TaskResponse> page = new ArrayList<>(tasks.size());
+            for (Task task : tasks) {
+                page.add(TaskService.toResponse(task));
+            }
+            return page;
+        }
+    }
+
+    @Benchmark
+    public List<TaskResponse> projection() {
+        try (Session session = readOnlySession()) {
+            return session.createSelectionQuery("select " + TaskRepository.RESPONSE + " from Task t" + ORDER, TaskResponse.class)
+                    .setParameter("userId", userId)
+                    .setMaxResults(pageSize)
+                    .getResultList();
+        }
+    }
+
+    private Session readOnlySession() {
+        Session session = sessionFactory.openSession();
+        session.setDefaultReadOnly(true);
+        session.setHibernateFlushMode(FlushMode.MANUAL);
+        return session;
+    }
+}
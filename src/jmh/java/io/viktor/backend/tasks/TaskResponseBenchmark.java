@@ -0,0 +1,84 @@
+package io.viktor.backend.tasks;
+
+import io.viktor.backend.tasks.dto.TaskResponse;
+import io.viktor.backend.users.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PagedModel;
+import org.springframework.test.util.ReflectionTestUtils;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response side of GET /api/v1/tasks: entity to DTO mapping for one page, then JSON serialization of
+ * the page, both as the Page itself and through the PagedModel DTO.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class TaskResponseBenchmark {
+
+    @Param({"20", "100"})
+    int pageSize;
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+
+    private List<Task> tasks;
+    private Page<TaskResponse> page;
+
+    @Setup
+    public void setUp() {
+        User owner = new User("bench@example.com", "{noop}unused", User.Role.USER);
+        ReflectionTestUtils.setField(owner, "id", 42L);
+
+        tasks = new ArrayList<>(pageSize);
+        Instant createdAt = Instant.parse("2026-01-01T00:00:00Z");
+        for (int i = 0; i < pageSize; i++) {
+            Task task = new Task("Task number " + i + " with a realistic title", i % 3 == 0, owner);
+            ReflectionTestUtils.setField(task, "id", 1_000L + i);
+            ReflectionTestUtils.setField(task, "createdAt", createdAt.plusSeconds(i));
+            tasks.add(task);
+        }
+
+        page = new PageImpl<>(mapPage(), PageRequest.of(0, pageSize, Sort.by("createdAt").descending()), 10_000);
+    }
+
+    @Benchmark
+    public List<TaskResponse> mapPage() {
+        List<TaskResponse> responses = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            responses.add(TaskService.toResponse(task));
+        }
+        return responses;
+    }
+
+    @Benchmark
+    public byte[] serializePage() {
+        return jsonMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] serializePagedModel() {
+        return jsonMapper.writeValueAsBytes(new PagedModel<>(page));
+    }
+}
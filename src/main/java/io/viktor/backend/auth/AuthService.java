@@ -5,7 +5,6 @@ import io.viktor.backend.auth.dto.LoginRequest;
 import io.viktor.backend.security.JwtService;
 import io.viktor.backend.users.User;
 import io.viktor.backend.users.UserRepository;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
@@ -15,7 +14,7 @@ import io.micrometer.core.instrument.Timer;
 public class AuthService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordVerifier passwordVerifier;
     private final JwtService jwtService;
     private final Counter loginSuccessCounter;
     private final Counter loginFailureCounter;
@@ -23,12 +22,12 @@ public class AuthService {
 
     public AuthService(
             UserRepository userRepository,
-            PasswordEncoder passwordEncoder,
+            PasswordVerifier passwordVerifier,
             JwtService jwtService,
             MeterRegistry meterRegistry)
     {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordVerifier = passwordVerifier;
         this.jwtService = jwtService;
 
         this.loginSuccessCounter = Counter.builder("auth_login_success_total")
@@ -53,10 +52,15 @@ public class AuthService {
                         return new IllegalArgumentException("Invalid credentials");
                     });
 
-            if (!passwordEncoder.matches(req.password(), user.getPassword())) {
+            // Hashing runs on a bounded pool; a full queue fails the login fast with 503
+            PasswordVerifier.Result result = passwordVerifier.verify(req.password(), user.getPassword());
+            if (!result.matches()) {
                 loginFailureCounter.increment();
                 throw new IllegalArgumentException("Invalid credentials");
             }
+            if (result.rehashed() != null) {
+                userRepository.replacePasswordHash(user.getId(), user.getPassword(), result.rehashed());
+            }
 
             loginSuccessCounter.increment();
             return new AuthResponse(jwtService.generateToken(user));
@@ -0,0 +1,121 @@
+package io.viktor.backend.auth;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.viktor.backend.common.exception.ServiceUnavailableException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs BCrypt on a dedicated, fixed-size pool with a bounded queue, so a burst of logins cannot take
+ * the CPU from every other endpoint. When the queue is full the login fails fast with a 503.
+ * A matching password whose hash uses another cost than the configured one is re-hashed in the same task.
+ */
+@Component
+public class PasswordVerifier {
+
+    /** rehashed is the new hash when the stored one should be replaced, otherwise null. */
+    public record Result(boolean matches, String rehashed) {}
+
+    private final PasswordEncoder passwordEncoder;
+    private final int bcryptStrength;
+    private final Duration retryAfter;
+    private final ThreadPoolExecutor executor;
+    private final Timer queueWait;
+    private final Counter rejected;
+
+    public PasswordVerifier(
+            PasswordEncoder passwordEncoder,
+            MeterRegistry meterRegistry,
+            @Value("${auth.password.bcrypt-strength:10}") int bcryptStrength,
+            @Value("${auth.password.threads:0}") int threads,
+            @Value("${auth.password.queue-capacity:64}") int queueCapacity,
+            @Value("${auth.password.retry-after:2s}") Duration retryAfter
+    ) {
+        this.passwordEncoder = passwordEncoder;
+        this.bcryptStrength = bcryptStrength;
+        this.retryAfter = retryAfter;
+
+        // 0 = one thread per core: hashing is pure CPU, more threads would only add contention
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNo = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadNo.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("auth_password_queue_depth", executor, e -> e.getQueue().size())
+                .description("Password verifications waiting for a hashing thread")
+                .register(meterRegistry);
+        Gauge.builder("auth_password_active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password verifications currently hashing")
+                .register(meterRegistry);
+        this.queueWait = Timer.builder("auth_password_queue_wait")
+                .description("Time a password verification waited for a hashing thread")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.rejected = Counter.builder("auth_password_rejected_total")
+                .description("Logins rejected with 503 because the hashing queue was full")
+                .register(meterRegistry);
+    }
+
+    public Result verify(String rawPassword, String encodedPassword) {
+        long submittedAt = System.nanoTime();
+        Future<Result> future;
+        try {
+            future = executor.submit(() -> {
+                queueWait.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                if (!passwordEncoder.matches(rawPassword, encodedPassword)) {
+                    return new Result(false, null);
+                }
+                return new Result(true, needsRehash(encodedPassword) ? passwordEncoder.encode(rawPassword) : null);
+            });
+        } catch (RejectedExecutionException ex) {
+            rejected.increment();
+            throw new ServiceUnavailableException("Too many concurrent logins. Please try again later.", retryAfter);
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while verifying password", ex);
+        } catch (ExecutionException ex) {
+            throw ex.getCause() instanceof RuntimeException runtime ? runtime : new IllegalStateException(ex.getCause());
+        }
+    }
+
+    // BCrypt hashes look like $2a$10$...: the second field is the cost
+    private boolean needsRehash(String encodedPassword) {
+        String[] parts = encodedPassword.split("\\$");
+        if (parts.length < 4) return false;
+        try {
+            return Integer.parseInt(parts[2]) != bcryptStrength;
+        } catch (NumberFormatException ex) {
+            return false;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
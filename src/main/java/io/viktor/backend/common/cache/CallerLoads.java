@@ -0,0 +1,41 @@
+package io.viktor.backend.common.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Read-through loads that block (JDBC) without pinning virtual threads. Cache.get(key, loader) and
+ * LoadingCache run the loader inside ConcurrentHashMap.compute, a synchronized block: on Java 21 a
+ * virtual thread that waits there for a connection pins its carrier, and so does every caller of the
+ * same key waiting for the bin lock. Here only an empty future is installed under the lock; the first
+ * caller loads on its own thread afterwards and the others wait on the future, which parks normally.
+ * A null or failed result is not kept, and an invalidate during the load discards the loaded value.
+ */
+public final class CallerLoads {
+
+    private CallerLoads() {
+    }
+
+    public static <K, V> V get(AsyncCache<K, V> cache, K key, Function<? super K, ? extends V> loader) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> entry = cache.get(key, (k, executor) -> mine);
+        if (entry == mine) {
+            try {
+                mine.complete(loader.apply(key));
+            } catch (RuntimeException | Error ex) {
+                mine.completeExceptionally(ex);
+                throw ex;
+            }
+        }
+        try {
+            return entry.join();
+        } catch (CompletionException ex) {
+            // Another caller's load failed: surface its exception as it was thrown there
+            if (ex.getCause() instanceof RuntimeException cause) throw cause;
+            throw ex;
+        }
+    }
+}
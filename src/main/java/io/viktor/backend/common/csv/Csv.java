@@ -0,0 +1,92 @@
+package io.viktor.backend.common.csv;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal RFC 4180 helpers (comma separated, double-quote escaping).
+ */
+public final class Csv {
+
+    private Csv() {}
+
+    public static String escape(String value) {
+        if (value == null) return "";
+
+        boolean needsQuotes = value.indexOf(',') >= 0
+                || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0
+                || value.indexOf('\r') >= 0;
+
+        return needsQuotes ? "\"" + value.replace("\"", "\"\"") + "\"" : value;
+    }
+
+    /**
+     * Streaming record reader: quoted fields may contain commas, escaped quotes and line breaks.
+     * The caller owns (and buffers) the underlying reader.
+     */
+    public static final class Reader {
+
+        private final java.io.Reader in;
+        private int pending = -2; // -2: nothing read ahead
+
+        public Reader(java.io.Reader in) {
+            this.in = in;
+        }
+
+        /**
+         * Returns the next record, or null at end of input.
+         */
+        public List<String> next() throws IOException {
+            int c = read();
+            if (c == -1) return null;
+
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+
+            while (true) {
+                if (quoted) {
+                    if (c == -1) throw new IllegalArgumentException("Unterminated quoted CSV field");
+                    if (c == '"') {
+                        int nextChar = read();
+                        if (nextChar == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            c = nextChar;
+                            continue;
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\r' || c == '\n' || c == -1) {
+                    if (c == '\r') {
+                        int nextChar = read();
+                        if (nextChar != '\n') pending = nextChar;
+                    }
+                    fields.add(field.toString());
+                    return fields;
+                } else {
+                    field.append((char) c);
+                }
+                c = read();
+            }
+        }
+
+        private int read() throws IOException {
+            if (pending != -2) {
+                int c = pending;
+                pending = -2;
+                return c;
+            }
+            return in.read();
+        }
+    }
+}
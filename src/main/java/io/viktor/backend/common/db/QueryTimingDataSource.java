@@ -0,0 +1,143 @@
+package io.viktor.backend.common.db;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Times JDBC work below Hibernate: db_connection_acquire covers getConnection() end to end (connection
+ * limiter plus pool), db_query_duration every execute call, tagged with the statement's operation and
+ * main table. Tags are derived once per distinct SQL string, so the per-execute cost is a cache lookup
+ * and a timer record. Only installed with management.metrics.detailed.jdbc.
+ */
+public class QueryTimingDataSource extends DelegatingDataSource {
+
+    private static final Pattern TABLE = Pattern.compile(
+            "\\b(?:from|into|update|join)\\s+([a-z_][a-z0-9_.]*)", Pattern.CASE_INSENSITIVE);
+
+    private final MeterRegistry registry;
+    private final Timer acquire;
+    private final Cache<String, Timer> timersBySql = Caffeine.newBuilder().maximumSize(2_000).build();
+
+    public QueryTimingDataSource(DataSource target, MeterRegistry registry) {
+        super(target);
+        this.registry = registry;
+        this.acquire = Timer.builder("db_connection_acquire")
+                .description("Time to obtain a JDBC connection, including limiter and pool waits")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return timed(super.getConnection());
+        } finally {
+            acquire.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return timed(super.getConnection(username, password));
+        } finally {
+            acquire.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Connection timed(Connection target) {
+        return proxy(Connection.class, (proxy, method, args) -> {
+            Object result = invoke(target, method, args);
+            String name = method.getName();
+            if (result instanceof CallableStatement statement && name.equals("prepareCall")) {
+                return statement(CallableStatement.class, statement, (String) args[0]);
+            }
+            if (result instanceof PreparedStatement statement && name.equals("prepareStatement")) {
+                return statement(PreparedStatement.class, statement, (String) args[0]);
+            }
+            if (result instanceof Statement statement && name.equals("createStatement")) {
+                return statement(Statement.class, statement, null);
+            }
+            return result;
+        });
+    }
+
+    // preparedSql is null for plain statements: their SQL is the execute argument
+    private <S extends Statement> S statement(Class<S> type, S target, String preparedSql) {
+        return proxy(type, (proxy, method, args) -> {
+            if (!method.getName().startsWith("execute")) {
+                return invoke(target, method, args);
+            }
+            String sql = preparedSql != null ? preparedSql
+                    : args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+            if (sql == null) {
+                return invoke(target, method, args);
+            }
+
+            long start = System.nanoTime();
+            try {
+                return invoke(target, method, args);
+            } finally {
+                timer(sql).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        });
+    }
+
+    private Timer timer(String sql) {
+        return timersBySql.get(sql, s -> Timer.builder("db_query_duration")
+                .description("JDBC statement execution time")
+                .tag("operation", operation(s))
+                .tag("table", table(s))
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry));
+    }
+
+    private static String operation(String sql) {
+        String trimmed = sql.stripLeading();
+        int end = 0;
+        while (end < trimmed.length() && Character.isLetter(trimmed.charAt(end))) end++;
+        String verb = trimmed.substring(0, end).toLowerCase(Locale.ROOT);
+        return switch (verb) {
+            case "select", "insert", "update", "delete", "with" -> verb;
+            default -> "other";
+        };
+    }
+
+    private static String table(String sql) {
+        Matcher matcher = TABLE.matcher(sql);
+        return matcher.find() ? matcher.group(1).toLowerCase(Locale.ROOT) : "none";
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getTargetException();
+        }
+    }
+}
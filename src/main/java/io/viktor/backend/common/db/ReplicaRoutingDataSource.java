@@ -0,0 +1,204 @@
+package io.viktor.backend.common.db;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.viktor.backend.security.CurrentUser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to a healthy replica (round-robin) and everything else to the primary.
+ * Must sit behind a LazyConnectionDataSourceProxy, so the transaction's read-only flag is known
+ * when the physical connection is chosen.
+ * <p>
+ * Replicas join the rotation after their first successful health check, and are skipped while they
+ * fail it or lag more than maxLag. A replica that fails to hand out a connection is ejected on the spot
+ * and the read goes to the primary; the next passing health check brings it back.
+ * <p>
+ * After a user's write commits, their read-only transactions stay on the primary for stickiness,
+ * so they read their own writes. Writers are remembered in memory, per instance: behind a load
+ * balancer without session affinity, a read that lands on another instance within the stickiness
+ * window can still miss the write.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    static final String PRIMARY = "primary";
+
+    // An idle primary sends no WAL, so replay timestamp age alone would report lag when there is none
+    private static final String LAG_SQL = """
+            SELECT CASE
+                     WHEN NOT pg_is_in_recovery() THEN 0
+                     WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                     ELSE coalesce(extract(epoch FROM now() - pg_last_xact_replay_timestamp()), 0)
+                   END
+            """;
+
+    private static final int HEALTH_CHECK_TIMEOUT_SECONDS = 2;
+
+    /** A replica pool and its last known state. */
+    public static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        // Unknown until the first health check: a replica still catching up must not serve reads
+        private volatile boolean healthy;
+        private volatile double lagSeconds;
+
+        public Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        public String name() { return name; }
+
+        public DataSource dataSource() { return dataSource; }
+
+        public boolean healthy() { return healthy; }
+    }
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final Map<String, Replica> replicasByName = new HashMap<>();
+    private final Duration maxLag;
+    private final Cache<Long, Boolean> recentWriters;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<Replica> replicas, Duration maxLag, Duration stickiness) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.maxLag = maxLag;
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(stickiness)
+                .build();
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (Replica replica : this.replicas) {
+            targets.put(replica.name(), replica.dataSource());
+            replicasByName.put(replica.name(), replica);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    public void bindMetrics(MeterRegistry registry) {
+        for (Replica replica : replicas) {
+            Gauge.builder("db.replica.healthy", replica, r -> r.healthy ? 1 : 0)
+                    .tag("replica", replica.name())
+                    .register(registry);
+            Gauge.builder("db.replica.lag", replica, r -> r.lagSeconds)
+                    .tag("replica", replica.name())
+                    .baseUnit("seconds")
+                    .register(registry);
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connect(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connect(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    private interface Connector {
+        Connection connect(DataSource dataSource) throws SQLException;
+    }
+
+    // A replica that cannot hand out a connection should not fail the read: the primary can serve it
+    private Connection connect(Connector connector) throws SQLException {
+        Replica replica = replicasByName.get(determineCurrentLookupKey());
+        if (replica == null) return connector.connect(primary);
+        try {
+            return connector.connect(replica.dataSource());
+        } catch (SQLException ex) {
+            if (replica.healthy) {
+                replica.healthy = false;
+                log.warn("Replica {} ejected: {}", replica.name(), ex.getMessage());
+            }
+            return connector.connect(primary);
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            rememberWriter();
+            return PRIMARY;
+        }
+
+        Long userId = CurrentUser.id();
+        if (userId != null && recentWriters.getIfPresent(userId) != null) {
+            return PRIMARY;
+        }
+        return pickReplica();
+    }
+
+    // Round-robin over healthy replicas; the primary serves reads when none is available
+    String pickReplica() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy) return replica.name();
+        }
+        return PRIMARY;
+    }
+
+    // Stickiness starts at commit: until then nobody, the writer included, can see the change
+    private void rememberWriter() {
+        Long userId = CurrentUser.id();
+        if (userId == null || replicas.isEmpty() || !TransactionSynchronizationManager.isSynchronizationActive()) return;
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recentWriters.put(userId, Boolean.TRUE);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${db.replicas.health-check-interval:PT5S}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            boolean wasHealthy = replica.healthy;
+            try (Connection con = replica.dataSource().getConnection();
+                 Statement st = con.createStatement()) {
+                st.setQueryTimeout(HEALTH_CHECK_TIMEOUT_SECONDS);
+                try (ResultSet rs = st.executeQuery(LAG_SQL)) {
+                    rs.next();
+                    replica.lagSeconds = rs.getDouble(1);
+                }
+                replica.healthy = replica.lagSeconds <= maxLag.toMillis() / 1000.0;
+            } catch (SQLException ex) {
+                replica.healthy = false;
+            }
+
+            if (wasHealthy && !replica.healthy) {
+                log.warn("Replica {} ejected (lag {}s)", replica.name(), replica.lagSeconds);
+            } else if (!wasHealthy && replica.healthy) {
+                log.info("Replica {} in rotation", replica.name());
+            }
+        }
+    }
+}
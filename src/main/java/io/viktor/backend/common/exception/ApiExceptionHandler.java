@@ -2,15 +2,22 @@ package io.viktor.backend.common.exception;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
@@ -19,6 +26,8 @@ import java.util.Map;
 @RestControllerAdvice
 public class ApiExceptionHandler {
 
+    private static final Duration NO_CONNECTION_RETRY_AFTER = Duration.ofSeconds(1);
+
     @ExceptionHandler(IllegalArgumentException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public Map<String, Object> handleIllegalArgument(IllegalArgumentException ex, HttpServletRequest request) {
@@ -27,6 +36,47 @@ public class ApiExceptionHandler {
                 .build();
     }
 
+    @ExceptionHandler(GoneException.class)
+    @ResponseStatus(HttpStatus.GONE)
+    public Map<String, Object> handleGone(GoneException ex, HttpServletRequest request) {
+        return baseBody(HttpStatus.GONE, request)
+                .with("message", ex.getMessage())
+                .build();
+    }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<Map<String, Object>> handleServiceUnavailable(ServiceUnavailableException ex, HttpServletRequest request) {
+        long retryAfterSeconds = Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(baseBody(HttpStatus.SERVICE_UNAVAILABLE, request)
+                        .with("message", ex.getMessage())
+                        .build());
+    }
+
+    // No connection in time (connection limiter or pool): shed like any overload instead of a 500
+    @ExceptionHandler({DataAccessResourceFailureException.class, CannotCreateTransactionException.class})
+    public ResponseEntity<Map<String, Object>> handleNoConnection(RuntimeException ex, HttpServletRequest request) {
+        if (!(NestedExceptionUtils.getMostSpecificCause(ex) instanceof SQLTransientConnectionException)) {
+            throw ex;
+        }
+        return handleServiceUnavailable(
+                new ServiceUnavailableException("No database connection available", NO_CONNECTION_RETRY_AFTER), request);
+    }
+
+    // Handles If-Match mismatches and concurrent modifications detected by @Version
+    @ExceptionHandler({PreconditionFailedException.class, ObjectOptimisticLockingFailureException.class})
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    public Map<String, Object> handlePreconditionFailed(RuntimeException ex, HttpServletRequest request) {
+        String message = (ex instanceof PreconditionFailedException)
+                ? ex.getMessage()
+                : "Resource was modified concurrently";
+
+        return baseBody(HttpStatus.PRECONDITION_FAILED, request)
+                .with("message", message)
+                .build();
+    }
+
     // Handles DTO validation errors triggered by @Valid
     @ExceptionHandler(MethodArgumentNotValidException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
@@ -0,0 +1,11 @@
+package io.viktor.backend.common.exception;
+
+/**
+ * Thrown when a client refers to state the server no longer keeps (e.g. an expired sync watermark).
+ */
+public class GoneException extends RuntimeException {
+
+    public GoneException(String message) {
+        super(message);
+    }
+}
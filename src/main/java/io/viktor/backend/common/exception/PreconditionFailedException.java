@@ -0,0 +1,11 @@
+package io.viktor.backend.common.exception;
+
+/**
+ * Thrown when a conditional write (If-Match) no longer matches the current resource version.
+ */
+public class PreconditionFailedException extends RuntimeException {
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
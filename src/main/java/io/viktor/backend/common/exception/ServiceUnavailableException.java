@@ -0,0 +1,20 @@
+package io.viktor.backend.common.exception;
+
+import java.time.Duration;
+
+/**
+ * Thrown when the server sheds load; mapped to 503 with a Retry-After header.
+ */
+public class ServiceUnavailableException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public ServiceUnavailableException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,12 @@
+package io.viktor.backend.common.web;
+
+import java.util.List;
+
+/**
+ * Slice of results for keyset pagination: no total, just a token to fetch the next slice (null on the last one).
+ */
+public record CursorPage<T>(
+        List<T> content,
+        int size,
+        String nextCursor
+) {}
@@ -0,0 +1,43 @@
+package io.viktor.backend.common.web;
+
+import io.viktor.backend.common.exception.PreconditionFailedException;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+
+public final class ETags {
+
+    private ETags() {}
+
+    /**
+     * Strong ETag for a single versioned resource, e.g. "3".
+     */
+    public static String ofVersion(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Strong ETag for a collection, derived from a fingerprint of its members' ids and versions.
+     */
+    public static String ofFingerprint(String fingerprint) {
+        return "\"" + DigestUtils.md5DigestAsHex(fingerprint.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    /**
+     * Version expected by an If-Match header, or null when the write is unconditional (absent or "*").
+     */
+    public static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || "*".equals(ifMatch.trim())) return null;
+
+        // If-Match uses strong comparison: weak or foreign tags can never match
+        String tag = ifMatch.trim();
+        if (tag.length() < 2 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new PreconditionFailedException("If-Match does not match the current version");
+        }
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException ex) {
+            throw new PreconditionFailedException("If-Match does not match the current version");
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package io.viktor.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.viktor.backend.common.db.ConnectionLimitingDataSource;
+import io.viktor.backend.common.db.QueryTimingDataSource;
+import io.viktor.backend.common.db.ReplicaRoutingDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Primary pool from spring.datasource.*, plus optional read replicas (db.replicas.urls).
+ * The application-wide DataSource is a lazy proxy over the routing DataSource: without replicas
+ * every connection still comes from the primary pool. With db.connection-limiter.enabled (on by
+ * default in virtual-thread mode) each pool sits behind a semaphore sized to the pool.
+ * management.metrics.detailed.jdbc adds per-statement and connection-acquisition timers on top.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            HikariDataSource primaryDataSource,
+            DataSourceProperties properties,
+            MeterRegistry meterRegistry,
+            @Value("${db.replicas.urls:}") List<String> urls,
+            @Value("${db.replicas.pool-size:10}") int poolSize,
+            @Value("${db.replicas.max-lag:10s}") Duration maxLag,
+            @Value("${db.replicas.sticky-primary:5s}") Duration stickiness,
+            @Value("${db.connection-limiter.enabled:false}") boolean limiterEnabled,
+            @Value("${db.connection-limiter.waiting-per-connection:50}") int waitingPerConnection,
+            @Value("${db.connection-limiter.acquire-timeout:10s}") Duration acquireTimeout
+    ) {
+        ConnectionLimiter limiter = (name, pool, size) -> {
+            if (!limiterEnabled) return pool;
+            ConnectionLimitingDataSource limited =
+                    new ConnectionLimitingDataSource(name, pool, size, size * waitingPerConnection, acquireTimeout);
+            limited.bindMetrics(meterRegistry);
+            return limited;
+        };
+
+        List<ReplicaRoutingDataSource.Replica> replicas = new ArrayList<>();
+        for (String url : urls) {
+            if (url.isBlank()) continue;
+
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + replicas.size());
+            replica.setJdbcUrl(url.trim());
+            replica.setUsername(properties.determineUsername());
+            replica.setPassword(properties.determinePassword());
+            replica.setReadOnly(true);
+            replica.setMaximumPoolSize(poolSize);
+            // A replica that is down must fail fast and never block startup: the primary takes its reads
+            replica.setConnectionTimeout(2000);
+            replica.setInitializationFailTimeout(-1);
+            replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.add(new ReplicaRoutingDataSource.Replica(replica.getPoolName(),
+                    limiter.wrap(replica.getPoolName(), replica, poolSize)));
+        }
+
+        DataSource primary = limiter.wrap(primaryDataSource.getPoolName(), primaryDataSource, primaryDataSource.getMaximumPoolSize());
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replicas, maxLag, stickiness);
+        routing.bindMetrics(meterRegistry);
+        return routing;
+    }
+
+    @FunctionalInterface
+    private interface ConnectionLimiter {
+        DataSource wrap(String name, DataSource pool, int maxConnections);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            ReplicaRoutingDataSource replicaRoutingDataSource,
+            MeterRegistry meterRegistry,
+            @Value("${management.metrics.detailed.jdbc:false}") boolean jdbcTimings
+    ) {
+        DataSource target = jdbcTimings
+                ? new QueryTimingDataSource(replicaRoutingDataSource, meterRegistry)
+                : replicaRoutingDataSource;
+        return new LazyConnectionDataSourceProxy(target);
+    }
+}
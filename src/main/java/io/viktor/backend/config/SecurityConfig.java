@@ -2,8 +2,12 @@ package io.viktor.backend.config;
 
 import io.viktor.backend.security.JwtAuthFilter;
 import io.viktor.backend.security.MetricsTokenFilter;
-import io.viktor.backend.security.ratelimit.LoginRateLimitFilter;
+import io.viktor.backend.security.concurrency.AdaptiveConcurrencyFilter;
+import io.viktor.backend.security.concurrency.AdaptiveConcurrencyProperties;
+import io.viktor.backend.security.ratelimit.RateLimitFilter;
+import io.viktor.backend.security.ratelimit.RateLimitProperties;
 import jakarta.servlet.DispatcherType;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -17,20 +21,24 @@ import org.springframework.security.web.access.HttpStatusAccessDeniedHandler;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 @Configuration
+@EnableConfigurationProperties({RateLimitProperties.class, AdaptiveConcurrencyProperties.class})
 public class SecurityConfig {
 
     private final JwtAuthFilter jwtAuthFilter;
-    private final LoginRateLimitFilter loginRateLimitFilter;
+    private final RateLimitFilter rateLimitFilter;
     private final MetricsTokenFilter metricsTokenFilter;
+    private final AdaptiveConcurrencyFilter adaptiveConcurrencyFilter;
 
     public SecurityConfig(
             JwtAuthFilter jwtAuthFilter,
-            LoginRateLimitFilter loginRateLimitFilter,
-            MetricsTokenFilter metricsTokenFilter
+            RateLimitFilter rateLimitFilter,
+            MetricsTokenFilter metricsTokenFilter,
+            AdaptiveConcurrencyFilter adaptiveConcurrencyFilter
     ) {
         this.jwtAuthFilter = jwtAuthFilter;
-        this.loginRateLimitFilter = loginRateLimitFilter;
+        this.rateLimitFilter = rateLimitFilter;
         this.metricsTokenFilter = metricsTokenFilter;
+        this.adaptiveConcurrencyFilter = adaptiveConcurrencyFilter;
     }
 
     @Bean
@@ -44,7 +52,8 @@ public class SecurityConfig {
                         .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED))
                         .accessDeniedHandler(new HttpStatusAccessDeniedHandler(HttpStatus.FORBIDDEN)))
                 .authorizeHttpRequests(auth -> auth
-                        .dispatcherTypeMatchers(DispatcherType.ERROR).permitAll()
+                        // ASYNC re-dispatches (streamed exports) were already authorized on the original request
+                        .dispatcherTypeMatchers(DispatcherType.ERROR, DispatcherType.ASYNC).permitAll()
                         // Public endpoints
                         .requestMatchers("/api/v1/auth/**").permitAll()
                         .requestMatchers("/auth/**").permitAll() // legacy (if any old clients)
@@ -66,9 +75,12 @@ public class SecurityConfig {
                         // Everything else
                         .anyRequest().denyAll()
                 )
-                .addFilterBefore(loginRateLimitFilter, UsernamePasswordAuthenticationFilter.class)
                 .addFilterBefore(metricsTokenFilter, UsernamePasswordAuthenticationFilter.class)
-                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+                // Shed load before paying for token verification
+                .addFilterBefore(adaptiveConcurrencyFilter, JwtAuthFilter.class)
+                // After JWT authentication, so limits can be keyed by user and role
+                .addFilterAfter(rateLimitFilter, JwtAuthFilter.class);
 
         return http.build();
     }
@@ -81,8 +93,8 @@ public class SecurityConfig {
     }
 
     @Bean
-    FilterRegistrationBean<LoginRateLimitFilter> loginRateLimitFilterRegistration(LoginRateLimitFilter filter) {
-        FilterRegistrationBean<LoginRateLimitFilter> registration = new FilterRegistrationBean<>(filter);
+    FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration(RateLimitFilter filter) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(filter);
         registration.setEnabled(false);
         return registration;
     }
@@ -93,4 +105,11 @@ public class SecurityConfig {
         registration.setEnabled(false);
         return registration;
     }
+
+    @Bean
+    FilterRegistrationBean<AdaptiveConcurrencyFilter> adaptiveConcurrencyFilterRegistration(AdaptiveConcurrencyFilter filter) {
+        FilterRegistrationBean<AdaptiveConcurrencyFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
+    }
 }
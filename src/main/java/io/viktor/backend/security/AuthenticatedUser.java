@@ -0,0 +1,25 @@
+package io.viktor.backend.security;
+
+import io.viktor.backend.users.User;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+
+/**
+ * Principal of a JWT-authenticated request, built from verified claims only.
+ * tokenVersion is the user's token_version when the token was issued.
+ */
+public record AuthenticatedUser(Long id, User.Role role, long tokenVersion) {
+
+    private static final List<GrantedAuthority> USER_AUTHORITIES = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+    private static final List<GrantedAuthority> ADMIN_AUTHORITIES = List.of(new SimpleGrantedAuthority("ROLE_ADMIN"));
+
+    public boolean isAdmin() {
+        return role == User.Role.ADMIN;
+    }
+
+    public List<GrantedAuthority> authorities() {
+        return isAdmin() ? ADMIN_AUTHORITIES : USER_AUTHORITIES;
+    }
+}
@@ -3,22 +3,24 @@ package io.viktor.backend.security;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 
-import java.util.Objects;
-
 public final class CurrentUser {
 
     private CurrentUser() {}
 
     public static Long id() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth == null || auth.getPrincipal() == null) return null;
-        return (Long) auth.getPrincipal();
+        AuthenticatedUser user = get();
+        return user == null ? null : user.id();
     }
 
     public static boolean isAdmin(){
+        AuthenticatedUser user = get();
+        return user != null && user.isAdmin();
+    }
+
+    // Null for anonymous requests and for non-user principals (e.g. the metrics scraper)
+    public static AuthenticatedUser get() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth == null) return false;
-        return auth.getAuthorities().stream()
-                .anyMatch(a -> Objects.equals(a.getAuthority(), "ROLE_ADMIN"));
+        if (auth == null) return null;
+        return auth.getPrincipal() instanceof AuthenticatedUser user ? user : null;
     }
 }
@@ -1,29 +1,52 @@
 package io.viktor.backend.security;
 
-import io.viktor.backend.users.User;
-import io.viktor.backend.users.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.List;
+import java.util.function.Supplier;
 
 @Component
 public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final UserRepository userRepository;
+    private final TokenRevocationCache revocationCache;
 
-    public JwtAuthFilter(JwtService jwtService, UserRepository userRepository) {
+    // Per-phase timers, null unless management.metrics.detailed.jwt-filter is on
+    private final Timer parseTimer;
+    private final Timer revocationTimer;
+    private final Timer contextTimer;
+
+    public JwtAuthFilter(
+            JwtService jwtService,
+            TokenRevocationCache revocationCache,
+            MeterRegistry meterRegistry,
+            @Value("${management.metrics.detailed.jwt-filter:false}") boolean phaseTimers
+    ) {
         this.jwtService = jwtService;
-        this.userRepository = userRepository;
+        this.revocationCache = revocationCache;
+        this.parseTimer = phaseTimers ? phaseTimer("parse", meterRegistry) : null;
+        this.revocationTimer = phaseTimers ? phaseTimer("revocation_check", meterRegistry) : null;
+        this.contextTimer = phaseTimers ? phaseTimer("security_context", meterRegistry) : null;
+    }
+
+    private static Timer phaseTimer(String phase, MeterRegistry meterRegistry) {
+        return Timer.builder("jwt_filter_phase")
+                .description("Time spent in each JwtAuthFilter phase")
+                .tag("phase", phase)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
     }
 
     @Override
@@ -41,23 +64,43 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
         String token = header.substring(7);
 
-        try {
-            Long userId = jwtService.extractUserId(token);
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            // Identity and role come from the signed claims; only the token version is checked
+            AuthenticatedUser user = parseOrNull(token);
 
-            if (SecurityContextHolder.getContext().getAuthentication() == null) {
-                User user = userRepository.findById(userId).orElse(null);
-                if (user != null) {
-                    var authorities = List.of(new SimpleGrantedAuthority("ROLE_" + user.getRole().name()));
-                    var auth = new UsernamePasswordAuthenticationToken(user.getId(), null, authorities);
+            boolean current;
+            try {
+                current = user != null && timed(revocationTimer, () -> revocationCache.isCurrent(user));
+            } catch (DataAccessException ex) {
+                // The token may well be valid: a 401 would log the client out over a database hiccup
+                response.setHeader("Retry-After", "1");
+                response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+                return;
+            }
+            if (current) {
+                timed(contextTimer, () -> {
+                    var auth = new UsernamePasswordAuthenticationToken(user, null, user.authorities());
                     auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
                     SecurityContextHolder.getContext().setAuthentication(auth);
-                }
+                    return auth;
+                });
             }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private AuthenticatedUser parseOrNull(String token) {
+        try {
+            return timed(parseTimer, () -> jwtService.parse(token));
         } catch (Exception ignored) {
             // Invalid token -> do not authenticate
+            return null;
         }
+    }
 
-        filterChain.doFilter(request, response);
+    private static <T> T timed(Timer timer, Supplier<T> phase) {
+        return timer == null ? phase.get() : timer.record(phase);
     }
-}
\ No newline at end of file
+}
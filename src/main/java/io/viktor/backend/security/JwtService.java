@@ -1,14 +1,27 @@
 package io.viktor.backend.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import io.viktor.backend.users.User;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
 
 @Service
@@ -16,13 +29,37 @@ public class JwtService {
 
     private final SecretKey key;
     private final long expirationMillis;
+    private final JwtParser parser;
+    private final Cache<String, VerifiedToken> verified;
+    private final Timer verifyTimer;
+
+    // Claims of a token that passed verification, valid until the token's own exp
+    private record VerifiedToken(AuthenticatedUser user, Instant expiresAt) {}
 
     public JwtService(
             @Value("${jwt.secret}") String base64Secret,
-            @Value("${jwt.expirationMillis}") long expirationMillis
+            @Value("${jwt.expirationMillis}") long expirationMillis,
+            @Value("${jwt.verified-cache.max-size:50000}") long verifiedCacheSize,
+            MeterRegistry meterRegistry
     ) {
         this.key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret));
         this.expirationMillis = expirationMillis;
+        // Immutable and thread-safe: built once instead of per request
+        this.parser = Jwts.parser().verifyWith(key).build();
+
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheSize)
+                .expireAfter(Expiry.creating((String digest, VerifiedToken token) ->
+                        Duration.between(Instant.now(), token.expiresAt())))
+                .recordStats()
+                .build();
+        // cache_gets{result=hit|miss} ... tagged cache="jwt_verified"
+        CaffeineCacheMetrics.monitor(meterRegistry, verified, "jwt_verified");
+
+        this.verifyTimer = Timer.builder("jwt_verify_duration")
+                .description("Time spent verifying JWT signatures and parsing claims (cache misses only)")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
     }
 
     public String generateToken(User user) {
@@ -33,20 +70,53 @@ public class JwtService {
                 .subject(String.valueOf(user.getId()))
                 .claim("email", user.getEmail())
                 .claim("role", user.getRole().name())
+                .claim("ver", user.getTokenVersion())
                 .issuedAt(Date.from(now))
                 .expiration(Date.from(exp))
                 .signWith(key, Jwts.SIG.HS256)
                 .compact();
     }
 
-    public Long extractUserId(String token) {
-        String sub = Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload()
-                .getSubject();
+    /**
+     * Verifies the token and builds the principal from its claims; no database access.
+     * Verified tokens are cached by SHA-256 digest until their exp, so a token reused across
+     * requests is verified once. Invalid tokens are never cached.
+     */
+    public AuthenticatedUser parse(String token) {
+        String digest = digest(token);
+        VerifiedToken cached = verified.getIfPresent(digest);
+        // Caffeine expiry is not exact to the millisecond; exp itself is the limit
+        if (cached != null && cached.expiresAt().isAfter(Instant.now())) {
+            return cached.user();
+        }
+
+        VerifiedToken fresh = verifyTimer.record(() -> verify(token));
+        if (fresh.expiresAt() != null) {
+            verified.put(digest, fresh);
+        }
+        return fresh.user();
+    }
+
+    private VerifiedToken verify(String token) {
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+
+        // Tokens issued before token_version existed have no "ver" claim: they match version 0
+        Number version = claims.get("ver", Number.class);
+        AuthenticatedUser user = new AuthenticatedUser(
+                Long.parseLong(claims.getSubject()),
+                User.Role.valueOf(claims.get("role", String.class)),
+                version == null ? 0 : version.longValue()
+        );
+        Date exp = claims.getExpiration();
+        return new VerifiedToken(user, exp == null ? null : exp.toInstant());
+    }
 
-        return Long.parseLong(sub);
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
     }
 }
@@ -0,0 +1,46 @@
+package io.viktor.backend.security;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.viktor.backend.common.cache.CallerLoads;
+import io.viktor.backend.users.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Current token_version per user, cached for a short TTL. This replaces a user lookup on every
+ * request with one indexed lookup per user per TTL; a revocation (role change, deleted user,
+ * version bump) takes effect within the TTL. Nothing in the app changes roles or versions (the
+ * role-change trigger fires on updates made outside it), so there is no in-process invalidation.
+ * The lookup runs on the caller's thread, outside the cache's locks (see CallerLoads): every
+ * request of a user waits on the same load when it expires.
+ */
+@Component
+public class TokenRevocationCache {
+
+    // Cached for users that no longer exist: no token matches it
+    private static final long DELETED = -1;
+
+    private final UserRepository userRepository;
+    private final AsyncCache<Long, Long> versions;
+
+    public TokenRevocationCache(
+            UserRepository userRepository,
+            @Value("${jwt.revocation-check.ttl:30s}") Duration ttl,
+            @Value("${jwt.revocation-check.max-size:100000}") long maxSize
+    ) {
+        this.userRepository = userRepository;
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .buildAsync();
+    }
+
+    public boolean isCurrent(AuthenticatedUser user) {
+        long current = CallerLoads.get(versions, user.id(),
+                userId -> userRepository.findTokenVersionById(userId).orElse(DELETED));
+        return current == user.tokenVersion();
+    }
+}
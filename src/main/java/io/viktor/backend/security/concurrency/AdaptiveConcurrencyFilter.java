@@ -0,0 +1,129 @@
+package io.viktor.backend.security.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Load shedder in front of authentication: caps in-flight requests with a latency-driven
+ * {@link GradientLimiter} and answers 503 beyond it, so a slow database turns into fast rejections
+ * instead of a queue of requests that all time out together.
+ * Health checks and login keep headroom above the limit; bulk calls are shed first.
+ */
+@Component
+public class AdaptiveConcurrencyFilter extends OncePerRequestFilter {
+
+    enum Priority { CRITICAL, NORMAL, BULK }
+
+    private record Route(String method, PathPattern path) {
+
+        static Route parse(String spec) {
+            String[] parts = spec.trim().split("\\s+", 2);
+            return parts.length == 2
+                    ? new Route(parts[0].toUpperCase(Locale.ROOT), PathPatternParser.defaultInstance.parse(parts[1]))
+                    : new Route(null, PathPatternParser.defaultInstance.parse(parts[0]));
+        }
+
+        boolean matches(String method, PathContainer path) {
+            return (this.method == null || this.method.equals(method)) && this.path.matches(path);
+        }
+    }
+
+    private final boolean enabled;
+    private final GradientLimiter limiter;
+    private final List<Route> critical;
+    private final List<Route> bulk;
+    private final Map<Priority, Double> shares = new EnumMap<>(Priority.class);
+    private final Map<Priority, Counter> rejected = new EnumMap<>(Priority.class);
+
+    public AdaptiveConcurrencyFilter(AdaptiveConcurrencyProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.enabled();
+        this.limiter = new GradientLimiter(
+                properties.initialLimit(), properties.minLimit(), properties.maxLimit(), properties.tolerance());
+        this.critical = properties.critical().stream().map(Route::parse).toList();
+        this.bulk = properties.bulk().stream().map(Route::parse).toList();
+
+        shares.put(Priority.CRITICAL, 1 + properties.criticalReserve());
+        shares.put(Priority.NORMAL, 1.0);
+        shares.put(Priority.BULK, properties.bulkShare());
+
+        Gauge.builder("adaptive_concurrency_limit", limiter, GradientLimiter::limit)
+                .description("Current adaptive in-flight request limit")
+                .register(meterRegistry);
+        Gauge.builder("adaptive_concurrency_in_flight", limiter, GradientLimiter::inFlight)
+                .description("Requests currently admitted by the adaptive limiter")
+                .register(meterRegistry);
+        for (Priority priority : Priority.values()) {
+            rejected.put(priority, Counter.builder("adaptive_concurrency_rejected_total")
+                    .description("Requests shed with 503 by the adaptive limiter")
+                    .tag("priority", priority.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        if (!enabled) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        Priority priority = classify(request);
+        int inFlightAtStart = limiter.tryAcquire(shares.get(priority));
+        if (inFlightAtStart < 0) {
+            rejected.get(priority).increment();
+            response.setHeader("Retry-After", "1");
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setContentType("application/json");
+            response.getWriter().write("""
+            {
+              "error": "Server is busy. Please try again later."
+            }
+            """);
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            // Streams (SSE, exports) continue asynchronously: free the slot, but their duration says
+            // nothing about server latency
+            long rtt = request.isAsyncStarted() ? -1 : System.nanoTime() - start;
+            limiter.release(rtt, inFlightAtStart);
+        }
+    }
+
+    private Priority classify(HttpServletRequest request) {
+        PathContainer path = PathContainer.parsePath(request.getRequestURI());
+        String method = request.getMethod();
+        for (Route route : critical) {
+            if (route.matches(method, path)) return Priority.CRITICAL;
+        }
+        for (Route route : bulk) {
+            if (route.matches(method, path)) return Priority.BULK;
+        }
+        return Priority.NORMAL;
+    }
+}
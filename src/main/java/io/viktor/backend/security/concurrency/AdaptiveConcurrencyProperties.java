@@ -0,0 +1,31 @@
+package io.viktor.backend.security.concurrency;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+/**
+ * adaptive-concurrency.*: routes are "/path/pattern" or "METHOD /path/pattern". Critical routes may
+ * exceed the limit by criticalReserve; bulk routes are shed once in-flight reaches bulkShare of it.
+ */
+@ConfigurationProperties("adaptive-concurrency")
+public record AdaptiveConcurrencyProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("100") int initialLimit,
+        @DefaultValue("10") int minLimit,
+        @DefaultValue("1000") int maxLimit,
+        @DefaultValue("2.0") double tolerance,
+        @DefaultValue("0.2") double criticalReserve,
+        @DefaultValue("0.7") double bulkShare,
+        List<String> critical,
+        List<String> bulk
+) {
+    public AdaptiveConcurrencyProperties {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("adaptive-concurrency needs 1 <= min-limit <= initial-limit <= max-limit");
+        }
+        critical = critical == null ? List.of() : List.copyOf(critical);
+        bulk = bulk == null ? List.of() : List.copyOf(bulk);
+    }
+}
@@ -0,0 +1,88 @@
+package io.viktor.backend.security.concurrency;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-flight request limit that follows observed latency (a simplified form of Netflix's Gradient2).
+ * A fast-moving short-term latency average is compared with a slow long-term one: while short stays
+ * within tolerance x long, the limit grows by about sqrt(limit) per sample; beyond that it shrinks in
+ * proportion (at most halving per sample). Admission is a lock-free CAS on the in-flight counter.
+ */
+public class GradientLimiter {
+
+    private static final double SHORT_WEIGHT = 0.1;   // ~10 samples
+    private static final double LONG_WEIGHT = 0.01;   // ~100 samples
+    private static final double SMOOTHING = 0.2;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    // Written under the monitor, read without it
+    private volatile int currentLimit;
+
+    // Guarded by this
+    private double limit;
+    private double shortRtt;
+    private double longRtt;
+
+    public GradientLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.limit = initialLimit;
+        this.currentLimit = initialLimit;
+    }
+
+    /**
+     * Admits a request while in-flight stays below limit x share (above 1 for reserved headroom).
+     * Returns the in-flight count before this request, or -1 when it must be shed.
+     */
+    public int tryAcquire(double share) {
+        int max = (int) Math.max(1, currentLimit * share);
+        while (true) {
+            int current = inFlight.get();
+            if (current >= max) return -1;
+            if (inFlight.compareAndSet(current, current + 1)) return current;
+        }
+    }
+
+    /** Ends a request; rttNanos < 0 releases the slot without a latency sample. */
+    public void release(long rttNanos, int inFlightAtStart) {
+        inFlight.decrementAndGet();
+        if (rttNanos >= 0) {
+            onSample(rttNanos, inFlightAtStart);
+        }
+    }
+
+    private synchronized void onSample(long rttNanos, int inFlightAtStart) {
+        if (shortRtt == 0) {
+            shortRtt = rttNanos;
+            longRtt = rttNanos;
+        }
+        shortRtt += (rttNanos - shortRtt) * SHORT_WEIGHT;
+        longRtt += (rttNanos - longRtt) * LONG_WEIGHT;
+
+        // After a spike, let the baseline come back down quickly instead of over ~100 samples
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / shortRtt));
+        // Latency is fine but the limit was not the bottleneck: no evidence that more would help
+        if (gradient == 1.0 && inFlightAtStart < limit / 2) return;
+
+        double target = limit * gradient + Math.sqrt(limit);
+        limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - SMOOTHING) + target * SMOOTHING));
+        currentLimit = (int) limit;
+    }
+
+    public int limit() {
+        return currentLimit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+}
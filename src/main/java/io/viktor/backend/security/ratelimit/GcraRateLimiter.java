@@ -0,0 +1,93 @@
+package io.viktor.backend.security.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-key rate limiter using the generic cell rate algorithm (GCRA): the whole state of a key is one
+ * long, its theoretical arrival time (TAT). `limit` requests per `window`, refilled continuously.
+ * <p>
+ * Keys live in a bounded Caffeine cache and expire once idle for a full window. By then their TAT
+ * lies in the past, so a fresh key behaves exactly the same and eviction loses nothing. Under a
+ * flood of distinct keys, memory stays capped at maxKeys. State is per instance (rate-limit.store=local).
+ * <p>
+ * Size-based eviction is different: a throttled key pushed out by a flood would come back with a full
+ * budget. Denied keys are therefore also kept in a smaller cache that only denials write to, and a
+ * re-created key picks its cell up from there. Evicting a throttled key takes a flood of throttled
+ * keys, each of which must first spend its whole limit.
+ */
+public class GcraRateLimiter implements RateLimitStore {
+
+    private final int limit;
+    private final long intervalNanos;
+    private final long windowNanos;
+    private final Ticker ticker;
+    private final Cache<String, AtomicLong> cells;
+    private final Cache<String, AtomicLong> throttled;
+
+    public GcraRateLimiter(String name, int limit, Duration window, long maxKeys, MeterRegistry meterRegistry) {
+        this(name, limit, window, maxKeys, meterRegistry, Ticker.systemTicker());
+    }
+
+    public GcraRateLimiter(String name, int limit, Duration window, long maxKeys, MeterRegistry meterRegistry, Ticker ticker) {
+        this.limit = limit;
+        this.windowNanos = window.toNanos();
+        this.intervalNanos = windowNanos / limit;
+        this.ticker = ticker;
+        this.cells = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(window)
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        // A TAT is never more than a window ahead, so a cell stops mattering one window after its denial
+        this.throttled = Caffeine.newBuilder()
+                .maximumSize(Math.max(1, maxKeys / 4))
+                .expireAfterWrite(window)
+                .ticker(ticker)
+                .build();
+
+        // cache_size, cache_evictions, cache_gets ... tagged cache=<name>
+        CaffeineCacheMetrics.monitor(meterRegistry, cells, name);
+    }
+
+    @Override
+    public int limit() {
+        return limit;
+    }
+
+    @Override
+    public Decision tryAcquire(String key) {
+        long now = ticker.read();
+        AtomicLong tat = cells.get(key, k -> {
+            AtomicLong kept = throttled.getIfPresent(k);
+            return kept != null ? kept : new AtomicLong(now);
+        });
+
+        while (true) {
+            long current = tat.get();
+            long next = Math.max(current, now) + intervalNanos;
+            long ahead = next - now;
+
+            if (ahead > windowNanos) {
+                throttled.put(key, tat);
+                return new Decision(false, 0, ahead - windowNanos);
+            }
+            if (tat.compareAndSet(current, next)) {
+                return new Decision(true, (windowNanos - ahead) / intervalNanos, 0);
+            }
+        }
+    }
+
+    // Tracked keys, after running pending evictions
+    public long size() {
+        cells.cleanUp();
+        return cells.estimatedSize();
+    }
+}
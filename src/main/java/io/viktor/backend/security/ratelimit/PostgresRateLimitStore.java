@@ -0,0 +1,139 @@
+package io.viktor.backend.security.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cluster-wide GCRA limits kept in rate_limit_cells (V10), shared by every instance.
+ * <p>
+ * Near-cache: an instance takes a lease of several tokens per round trip and hands them out locally
+ * for as long as those tokens take to accrue, and remembers denials until their retry time.
+ * Most allowed requests and all repeated denials then skip the database. Leased tokens are already spent in the shared cell,
+ * so the cluster never admits more than the limit; an unused lease only makes the limit stricter.
+ * If the database fails, decisions fall back to a per-instance limiter instead of failing open.
+ */
+public class PostgresRateLimitStore implements RateLimitStore {
+
+    private static final Logger log = LoggerFactory.getLogger(PostgresRateLimitStore.class);
+
+    /** One call to rate_limit_acquire(); durations in microseconds. */
+    @FunctionalInterface
+    public interface CellAcquirer {
+        Grant acquire(String key, long intervalMicros, long windowMicros, int maxTokens);
+    }
+
+    public record Grant(int granted, int available, long waitMicros) {}
+
+    // Guarded by lock; the lock is held across the database call, so one request per key and instance
+    // refills the lease while the others wait for its result instead of making their own round trip
+    private static final class Lease {
+        final ReentrantLock lock = new ReentrantLock();
+        int tokens;
+        long available;
+        long validUntil;
+        long deniedUntil;
+    }
+
+    private final String name;
+    private final int limit;
+    private final long intervalMicros;
+    private final long windowMicros;
+    private final int leaseSize;
+    private final CellAcquirer acquirer;
+    private final RateLimitStore fallback;
+    private final Ticker ticker;
+    private final Cache<String, Lease> leases;
+    private final Counter roundTrips;
+    private final Counter fallbacks;
+
+    public PostgresRateLimitStore(
+            String name,
+            int limit,
+            Duration window,
+            int leaseSize,
+            long maxKeys,
+            CellAcquirer acquirer,
+            RateLimitStore fallback,
+            MeterRegistry meterRegistry,
+            Ticker ticker
+    ) {
+        this.name = name;
+        this.limit = limit;
+        this.windowMicros = TimeUnit.NANOSECONDS.toMicros(window.toNanos());
+        this.intervalMicros = windowMicros / limit;
+        this.leaseSize = Math.max(1, Math.min(leaseSize, limit));
+        this.acquirer = acquirer;
+        this.fallback = fallback;
+        this.ticker = ticker;
+        this.leases = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(window)
+                .ticker(ticker)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, leases, name + "_rate_limit_leases");
+        this.roundTrips = Counter.builder("rate_limit_store_round_trips_total")
+                .description("Calls to the shared rate-limit table")
+                .tag("policy", name)
+                .register(meterRegistry);
+        this.fallbacks = Counter.builder("rate_limit_store_fallback_total")
+                .description("Decisions taken by the local fallback because the shared store failed")
+                .tag("policy", name)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public int limit() {
+        return limit;
+    }
+
+    @Override
+    public Decision tryAcquire(String key) {
+        Lease lease = leases.get(key, k -> new Lease());
+        lease.lock.lock();
+        try {
+            long now = ticker.read();
+            if (now < lease.deniedUntil) {
+                return new Decision(false, 0, lease.deniedUntil - now);
+            }
+            if (lease.tokens > 0 && now < lease.validUntil) {
+                lease.tokens--;
+                return new Decision(true, lease.tokens + lease.available, 0);
+            }
+
+            Grant grant;
+            try {
+                roundTrips.increment();
+                grant = acquirer.acquire(name + ":" + key, intervalMicros, windowMicros, leaseSize);
+            } catch (DataAccessException ex) {
+                fallbacks.increment();
+                log.warn("Rate-limit store unavailable for policy {}, using the local limiter: {}", name, ex.getMessage());
+                return fallback.tryAcquire(key);
+            }
+
+            if (grant.granted() == 0) {
+                lease.tokens = 0;
+                lease.deniedUntil = now + TimeUnit.MICROSECONDS.toNanos(grant.waitMicros());
+                return new Decision(false, 0, lease.deniedUntil - now);
+            }
+            lease.tokens = grant.granted() - 1;
+            lease.available = grant.available();
+            lease.validUntil = now + grant.granted() * TimeUnit.MICROSECONDS.toNanos(intervalMicros);
+            return new Decision(true, lease.tokens + lease.available, 0);
+        } finally {
+            lease.lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package io.viktor.backend.security.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.viktor.backend.security.AuthenticatedUser;
+import io.viktor.backend.security.CurrentUser;
+import io.viktor.backend.users.User;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Applies the rate-limit.policies from application.yml. Runs after JwtAuthFilter, so authenticated
+ * requests are limited per user (with a limit per role) and anonymous ones per client IP, except on
+ * policies keyed by ip, where the bearer token is ignored.
+ * Everything is resolved at startup; per request it is a pattern match plus one store call,
+ * which for the local store is a single CAS.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String TIER_ANONYMOUS = "ANONYMOUS";
+
+    private record Limit(RateLimitStore store, Counter rejected) {}
+
+    private record CompiledPolicy(String name, PathPattern path, Set<String> methods, boolean byIp,
+                                  Limit anonymous, Map<User.Role, Limit> byRole) {
+
+        boolean matches(String method, PathContainer path) {
+            return (methods.isEmpty() || methods.contains(method)) && this.path.matches(path);
+        }
+    }
+
+    private final List<CompiledPolicy> policies;
+
+    public RateLimitFilter(
+            RateLimitProperties properties,
+            RateLimitStoreFactory rateLimitStoreFactory,
+            MeterRegistry meterRegistry
+    ) {
+        List<CompiledPolicy> compiled = new ArrayList<>();
+        for (RateLimitProperties.Policy policy : properties.policies()) {
+            Map<User.Role, Limit> byRole = new EnumMap<>(User.Role.class);
+            for (User.Role role : User.Role.values()) {
+                int limit = policy.tiers().getOrDefault(role.name(), policy.limit());
+                byRole.put(role, limit(policy, role.name(), limit, rateLimitStoreFactory, meterRegistry));
+            }
+
+            compiled.add(new CompiledPolicy(
+                    policy.name(),
+                    PathPatternParser.defaultInstance.parse(policy.path()),
+                    policy.methods().stream().map(m -> m.toUpperCase(Locale.ROOT)).collect(Collectors.toUnmodifiableSet()),
+                    policy.key() == RateLimitProperties.Key.IP,
+                    limit(policy, TIER_ANONYMOUS, policy.limit(), rateLimitStoreFactory, meterRegistry),
+                    byRole
+            ));
+        }
+        this.policies = List.copyOf(compiled);
+    }
+
+    private static Limit limit(RateLimitProperties.Policy policy, String tier, int limit,
+                               RateLimitStoreFactory factory, MeterRegistry meterRegistry) {
+        return new Limit(
+                factory.create(policy.name() + "_" + tier.toLowerCase(Locale.ROOT), limit, policy.window()),
+                Counter.builder("rate_limit_rejected_total")
+                        .description("Requests rejected with 429 by a rate-limit policy")
+                        .tag("policy", policy.name())
+                        .tag("tier", tier)
+                        .register(meterRegistry));
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        CompiledPolicy policy = match(request);
+        if (policy == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        AuthenticatedUser user = policy.byIp() ? null : CurrentUser.get();
+        Limit limit = user == null ? policy.anonymous() : policy.byRole().get(user.role());
+        String key = user == null ? "ip:" + request.getRemoteAddr() : "user:" + user.id();
+        RateLimitStore.Decision decision = limit.store().tryAcquire(key);
+
+        response.setHeader("X-Rate-Limit-Limit", String.valueOf(limit.store().limit()));
+        response.setHeader("X-Rate-Limit-Remaining", String.valueOf(decision.remaining()));
+
+        if (!decision.allowed()) {
+            limit.rejected().increment();
+            // Rounded up: a client that waits exactly Retry-After must not be refused again
+            long secondsToWait = Math.max(1, (decision.retryAfterNanos() + 999_999_999) / 1_000_000_000);
+
+            response.setHeader("Retry-After", String.valueOf(secondsToWait));
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setContentType("application/json");
+            response.getWriter().write("""
+            {
+              "error": "Too many requests. Please try again later."
+            }
+            """);
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private CompiledPolicy match(HttpServletRequest request) {
+        if (policies.isEmpty()) return null;
+
+        PathContainer path = PathContainer.parsePath(request.getRequestURI());
+        String method = request.getMethod();
+        for (CompiledPolicy policy : policies) {
+            if (policy.matches(method, path)) return policy;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,49 @@
+package io.viktor.backend.security.ratelimit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * rate-limit.policies: ordered, the first policy whose path and method match a request applies.
+ * With key: user (the default) authenticated requests are keyed by user id, anonymous ones by client IP;
+ * limit applies to anonymous requests and to roles without an entry in tiers (keyed by role: USER, ADMIN).
+ * With key: ip every request is keyed by client IP with the same limit, whatever token it carries: for
+ * endpoints where a caller could multiply its budget by rotating tokens (login, imports).
+ */
+@ConfigurationProperties("rate-limit")
+public record RateLimitProperties(List<Policy> policies) {
+
+    public RateLimitProperties {
+        policies = policies == null ? List.of() : List.copyOf(policies);
+    }
+
+    public enum Key { IP, USER }
+
+    public record Policy(
+            String name,
+            String path,
+            List<String> methods,
+            int limit,
+            Map<String, Integer> tiers,
+            Duration window,
+            Key key
+    ) {
+        public Policy {
+            if (name == null || name.isBlank()) throw new IllegalArgumentException("rate-limit policy needs a name");
+            if (path == null || path.isBlank()) throw new IllegalArgumentException("rate-limit policy " + name + " needs a path");
+            if (limit < 1) throw new IllegalArgumentException("rate-limit policy " + name + " needs a positive limit");
+            if (window == null || window.isNegative() || window.isZero()) {
+                throw new IllegalArgumentException("rate-limit policy " + name + " needs a positive window");
+            }
+            methods = methods == null ? List.of() : List.copyOf(methods);
+            tiers = tiers == null ? Map.of() : Map.copyOf(tiers);
+            key = key == null ? Key.USER : key;
+            if (key == Key.IP && !tiers.isEmpty()) {
+                throw new IllegalArgumentException("rate-limit policy " + name + " is keyed by ip and cannot have tiers");
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package io.viktor.backend.security.ratelimit;
+
+/**
+ * Rate-limit state for one policy (a limit per window), keyed by client. Created through
+ * {@link RateLimitStoreFactory}, which picks the backend from rate-limit.store.
+ */
+public interface RateLimitStore {
+
+    /** remaining is how many more requests the key may make right now; retryAfterNanos is set when denied. */
+    record Decision(boolean allowed, long remaining, long retryAfterNanos) {}
+
+    int limit();
+
+    Decision tryAcquire(String key);
+}
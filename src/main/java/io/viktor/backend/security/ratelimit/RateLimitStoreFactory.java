@@ -0,0 +1,71 @@
+package io.viktor.backend.security.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Creates the rate-limit store for a policy. rate-limit.store selects the backend: "local" keeps
+ * state per instance, "postgres" shares it across instances through rate_limit_cells.
+ */
+@Component
+public class RateLimitStoreFactory {
+
+    private static final String ACQUIRE_SQL = "SELECT granted, available, wait_us FROM rate_limit_acquire(?, ?, ?, ?)";
+
+    // A cell whose TAT is in the past is a full bucket: dropping it changes nothing
+    private static final String PURGE_SQL =
+            "DELETE FROM rate_limit_cells WHERE tat < (extract(epoch FROM clock_timestamp()) * 1000000)::bigint";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final String store;
+    private final long maxKeys;
+    private final double leaseFraction;
+
+    public RateLimitStoreFactory(
+            DataSource dataSource,
+            MeterRegistry meterRegistry,
+            @Value("${rate-limit.store:local}") String store,
+            @Value("${rate-limit.max-keys:100000}") long maxKeys,
+            @Value("${rate-limit.postgres.lease-fraction:0.1}") double leaseFraction
+    ) {
+        if (!store.equals("local") && !store.equals("postgres")) {
+            throw new IllegalArgumentException("rate-limit.store must be local or postgres, was: " + store);
+        }
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.meterRegistry = meterRegistry;
+        this.store = store;
+        this.maxKeys = maxKeys;
+        this.leaseFraction = leaseFraction;
+    }
+
+    public RateLimitStore create(String name, int limit, Duration window) {
+        GcraRateLimiter local = new GcraRateLimiter(name + "_rate_limit", limit, window, maxKeys, meterRegistry);
+        if (store.equals("local")) return local;
+
+        // e.g. 600/min leases 60 tokens per round trip; a 10/min login limit leases one at a time
+        int leaseSize = (int) Math.max(1, Math.floor(limit * leaseFraction));
+        return new PostgresRateLimitStore(name, limit, window, leaseSize, maxKeys,
+                this::acquire, local, meterRegistry, Ticker.systemTicker());
+    }
+
+    private PostgresRateLimitStore.Grant acquire(String key, long intervalMicros, long windowMicros, int maxTokens) {
+        return jdbcTemplate.queryForObject(ACQUIRE_SQL,
+                (rs, rowNum) -> new PostgresRateLimitStore.Grant(rs.getInt("granted"), rs.getInt("available"), rs.getLong("wait_us")),
+                key, intervalMicros, windowMicros, maxTokens);
+    }
+
+    @Scheduled(fixedDelayString = "${rate-limit.postgres.purge-interval:PT5M}", initialDelayString = "${rate-limit.postgres.purge-interval:PT5M}")
+    public void purgeIdleCells() {
+        if (store.equals("postgres")) {
+            jdbcTemplate.update(PURGE_SQL);
+        }
+    }
+}
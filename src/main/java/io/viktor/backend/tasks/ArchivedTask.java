@@ -0,0 +1,47 @@
+package io.viktor.backend.tasks;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.Instant;
+
+/**
+ * Completed task moved out of the hot table by TaskPartitionMaintenance. Read-only.
+ */
+@Entity
+@Immutable
+@Table(name = "tasks_archive")
+public class ArchivedTask {
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private String title;
+
+    @Column(nullable = false)
+    private boolean completed;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(nullable = false)
+    private long version;
+
+    protected ArchivedTask() {}
+
+    public Long getId() { return id; }
+
+    public String getTitle() { return title; }
+
+    public boolean isCompleted() { return completed; }
+
+    public Long getUserId() { return userId; }
+
+    public Instant getCreatedAt() { return createdAt; }
+
+    public long getVersion() { return version; }
+}
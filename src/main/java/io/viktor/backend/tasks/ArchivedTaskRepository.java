@@ -0,0 +1,32 @@
+package io.viktor.backend.tasks;
+
+import io.viktor.backend.tasks.dto.TaskResponse;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface ArchivedTaskRepository extends JpaRepository<ArchivedTask, Long> {
+
+    String RESPONSE = "new io.viktor.backend.tasks.dto.TaskResponse(a.id, a.title, a.completed, a.userId, a.createdAt, a.version)";
+
+    // Same keyset contract as TaskRepository, so archived rows merge into one cursor ordering.
+    // Only completed tasks are archived, hence no completed filter.
+
+    @Query("select " + RESPONSE + """
+             from ArchivedTask a
+            where a.createdAt < :createdAt or (a.createdAt = :createdAt and a.id < :id)
+            order by a.createdAt desc, a.id desc
+            """)
+    List<TaskResponse> findSliceAfter(Instant createdAt, Long id, Limit limit);
+
+    @Query("select " + RESPONSE + """
+             from ArchivedTask a
+            where a.userId = :userId
+              and (a.createdAt < :createdAt or (a.createdAt = :createdAt and a.id < :id))
+            order by a.createdAt desc, a.id desc
+            """)
+    List<TaskResponse> findSliceByUserIdAfter(Long userId, Instant createdAt, Long id, Limit limit);
+}
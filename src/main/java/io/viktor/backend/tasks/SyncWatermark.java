@@ -0,0 +1,54 @@
+package io.viktor.backend.tasks;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Delta sync position, exchanged with clients as an opaque token.
+ * Changes strictly after (afterXid, afterId) in (change_xid, id) order are still to be sent.
+ * issuedAt is when the underlying snapshot was taken (tombstones are kept for a limited time after it).
+ * While a sync is being paged, pendingXmin/pendingAt hold the snapshot the final watermark will use.
+ */
+public record SyncWatermark(long afterXid, long afterId, Instant issuedAt, Long pendingXmin, Instant pendingAt) {
+
+    private static final String SEPARATOR = "|";
+
+    // Initial sync: every row
+    static SyncWatermark initial(Instant now) {
+        return new SyncWatermark(0, 0, now, null, null);
+    }
+
+    // Every transaction below xmin had finished when the snapshot was taken, so later syncs start there
+    static SyncWatermark fromSnapshot(long xmin, Instant takenAt) {
+        return new SyncWatermark(xmin - 1, Long.MAX_VALUE, takenAt, null, null);
+    }
+
+    SyncWatermark continueAfter(long xid, long id, long snapshotXmin, Instant snapshotAt) {
+        return new SyncWatermark(xid, id, issuedAt, snapshotXmin, snapshotAt);
+    }
+
+    public String encode() {
+        String raw = afterXid + SEPARATOR + afterId + SEPARATOR + issuedAt.toEpochMilli()
+                + (pendingXmin == null ? "" : SEPARATOR + pendingXmin + SEPARATOR + pendingAt.toEpochMilli());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static SyncWatermark decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR);
+            if (parts.length != 3 && parts.length != 5) throw new IllegalArgumentException();
+
+            return new SyncWatermark(
+                    Long.parseLong(parts[0]),
+                    Long.parseLong(parts[1]),
+                    Instant.ofEpochMilli(Long.parseLong(parts[2])),
+                    parts.length == 5 ? Long.valueOf(parts[3]) : null,
+                    parts.length == 5 ? Instant.ofEpochMilli(Long.parseLong(parts[4])) : null
+            );
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Invalid watermark");
+        }
+    }
+}
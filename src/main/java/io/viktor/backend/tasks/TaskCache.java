@@ -0,0 +1,108 @@
+package io.viktor.backend.tasks;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.viktor.backend.common.cache.CallerLoads;
+import io.viktor.backend.tasks.dto.TaskEvent;
+import io.viktor.backend.tasks.dto.TaskResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Bounded in-process cache of task snapshots keyed by id.
+ * Writers evict (or refresh) entries once their transaction completes, so readers never see uncommitted state.
+ * Entries are only filled from the primary (see get), so an evicted row cannot come back from a lagging replica.
+ * Other instances' writes arrive as task events (see evictFor). Loads run on the caller's thread,
+ * outside the cache's locks (see CallerLoads), since they query the database.
+ */
+@Component
+public class TaskCache {
+
+    private final AsyncCache<Long, TaskResponse> cache;
+
+    public TaskCache(
+            @Value("${tasks.cache.max-size:10000}") long maxSize,
+            @Value("${tasks.cache.ttl:5m}") Duration ttl,
+            MeterRegistry meterRegistry
+    ) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+
+        // cache_gets{result=hit|miss}, cache_evictions, cache_size ... tagged cache="tasks"
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "tasks");
+    }
+
+    public Optional<TaskResponse> get(Long taskId, Function<Long, Optional<TaskResponse>> loader) {
+        // A read-only transaction may be served by a replica that has not replayed the last write yet:
+        // such a row is returned but never cached, or it would outlive the writer's eviction by the TTL
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            TaskResponse cached = cache.synchronous().getIfPresent(taskId);
+            return cached != null ? Optional.of(cached) : loader.apply(taskId);
+        }
+        // Missing tasks are not cached: the loader returns null and Caffeine stores nothing
+        return Optional.ofNullable(CallerLoads.get(cache, taskId, id -> loader.apply(id).orElse(null)));
+    }
+
+    public Optional<TaskResponse> peek(Long taskId) {
+        return Optional.ofNullable(cache.synchronous().getIfPresent(taskId));
+    }
+
+    public void putAfterCommit(TaskResponse task) {
+        afterCompletion(committed -> {
+            if (committed) cache.synchronous().put(task.id(), task);
+        });
+    }
+
+    public void evict(Long taskId) {
+        // Evict now and again once the transaction ends, in case a concurrent read re-cached the old row
+        cache.synchronous().invalidate(taskId);
+        afterCompletion(committed -> cache.synchronous().invalidate(taskId));
+    }
+
+    public void evict(Collection<Long> taskIds) {
+        cache.synchronous().invalidateAll(taskIds);
+        afterCompletion(committed -> cache.synchronous().invalidateAll(taskIds));
+    }
+
+    public void evictAll() {
+        cache.synchronous().invalidateAll();
+        afterCompletion(committed -> cache.synchronous().invalidateAll());
+    }
+
+    // Change made by any instance, as broadcast through TaskEventPublisher. Events without ids
+    // (bulk by filter, resync after missed notifications) cannot be narrowed down: drop everything.
+    public void evictFor(TaskEvent event) {
+        if (event.taskIds() == null || event.type() == TaskEvent.Type.RESYNC) {
+            cache.synchronous().invalidateAll();
+        } else if (event.type() != TaskEvent.Type.CREATED) {
+            cache.synchronous().invalidateAll(event.taskIds());
+        }
+    }
+
+    private void afterCompletion(Consumer<Boolean> action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.accept(true);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.accept(status == STATUS_COMMITTED);
+            }
+        });
+    }
+}
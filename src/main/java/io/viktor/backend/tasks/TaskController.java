@@ -2,19 +2,33 @@ package io.viktor.backend.tasks;
 
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.viktor.backend.security.CurrentUser;
+import io.viktor.backend.tasks.dto.TaskBatchItemResult;
+import io.viktor.backend.tasks.dto.TaskBulkResponse;
+import io.viktor.backend.tasks.dto.TaskBulkUpdateRequest;
+import io.viktor.backend.tasks.dto.TaskChangesResponse;
 import io.viktor.backend.tasks.dto.TaskCreateRequest;
+import io.viktor.backend.tasks.dto.TaskImportResponse;
 import io.viktor.backend.tasks.dto.TaskResponse;
+import io.viktor.backend.tasks.dto.TaskSummaryResponse;
 import io.viktor.backend.tasks.dto.TaskUpdateRequest;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import java.io.InputStream;
 import java.net.URI;
+import java.util.List;
 import io.viktor.backend.common.web.ApiPaths;
+import io.viktor.backend.common.web.CursorPage;
+import io.viktor.backend.common.web.ETags;
 
 @SecurityRequirement(name = "bearerAuth")
 @RestController
@@ -22,9 +36,26 @@ import io.viktor.backend.common.web.ApiPaths;
 public class TaskController {
 
     private final TaskService service;
+    private final TaskExportService exportService;
+    private final TaskImportService importService;
+    private final TaskSearchService searchService;
+    private final TaskSyncService syncService;
+    private final TaskStreamRegistry streamRegistry;
 
-    public TaskController(TaskService service) {
+    public TaskController(
+            TaskService service,
+            TaskExportService exportService,
+            TaskImportService importService,
+            TaskSearchService searchService,
+            TaskSyncService syncService,
+            TaskStreamRegistry streamRegistry
+    ) {
         this.service = service;
+        this.exportService = exportService;
+        this.importService = importService;
+        this.searchService = searchService;
+        this.syncService = syncService;
+        this.streamRegistry = streamRegistry;
     }
 
     @PreAuthorize("isAuthenticated()")
@@ -39,7 +70,107 @@ public class TaskController {
         boolean isAdmin = CurrentUser.isAdmin();
 
         Page<TaskResponse> results = service.findAll(userId, completed, currentUserId, isAdmin, pageable);
-        return ResponseEntity.ok(results);
+        String fingerprint = results.getTotalElements() + "/" + results.getNumber() + "/" + fingerprint(results.getContent());
+
+        // A matching If-None-Match turns this into a 304 before the body is serialized
+        return ResponseEntity.ok().eTag(ETags.ofFingerprint(fingerprint)).body(results);
+    }
+
+    // Cursor mode: pass an empty "after" for the first slice, then the returned nextCursor
+    @PreAuthorize("isAuthenticated()")
+    @GetMapping(params = "after")
+    public ResponseEntity<CursorPage<TaskResponse>> getAllAfter(
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) Boolean completed,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeArchived
+    ) {
+        Long currentUserId = CurrentUser.id();
+        boolean isAdmin = CurrentUser.isAdmin();
+
+        CursorPage<TaskResponse> results = service.findAllAfter(userId, completed, currentUserId, isAdmin, after, size, includeArchived);
+        String fingerprint = results.nextCursor() + "/" + fingerprint(results.content());
+
+        return ResponseEntity.ok().eTag(ETags.ofFingerprint(fingerprint)).body(results);
+    }
+
+    // Ranked title search (best match first), scoped like getAll
+    @PreAuthorize("isAuthenticated()")
+    @GetMapping("/search")
+    public ResponseEntity<List<TaskResponse>> search(
+            @RequestParam String q,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) Boolean completed,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        Long currentUserId = CurrentUser.id();
+        boolean isAdmin = CurrentUser.isAdmin();
+
+        return ResponseEntity.ok(searchService.search(q, userId, completed, currentUserId, isAdmin, size));
+    }
+
+    // Delta sync: omit "since" for a full sync, then pass the returned watermark; 410 means sync from scratch
+    @PreAuthorize("isAuthenticated()")
+    @GetMapping("/changes")
+    public ResponseEntity<TaskChangesResponse> changes(
+            @RequestParam(required = false) String since,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(defaultValue = "500") int size
+    ) {
+        Long currentUserId = CurrentUser.id();
+        boolean isAdmin = CurrentUser.isAdmin();
+
+        return ResponseEntity.ok(syncService.changesSince(since, userId, currentUserId, isAdmin, size));
+    }
+
+    // Live created/updated/deleted events; a "resync" event means events may have been missed
+    @PreAuthorize("isAuthenticated()")
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream() {
+        return streamRegistry.subscribe(CurrentUser.id(), CurrentUser.isAdmin());
+    }
+
+    // O(1) dashboard stats from the per-user counters; admins may pass userId, or omit it for global totals
+    @PreAuthorize("isAuthenticated()")
+    @GetMapping("/summary")
+    public ResponseEntity<TaskSummaryResponse> summary(@RequestParam(required = false) Long userId) {
+        Long currentUserId = CurrentUser.id();
+        boolean isAdmin = CurrentUser.isAdmin();
+
+        return ResponseEntity.ok(service.summary(userId, currentUserId, isAdmin));
+    }
+
+    @PreAuthorize("isAuthenticated()")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) Boolean completed,
+            @RequestParam(name = "format", defaultValue = "ndjson") String formatName,
+            @RequestParam(defaultValue = "false") boolean includeArchived
+    ) {
+        TaskFileFormat format = TaskFileFormat.from(formatName);
+
+        // Resolve the caller before streaming: the body is written on an async thread
+        Long currentUserId = CurrentUser.id();
+        boolean isAdmin = CurrentUser.isAdmin();
+
+        StreamingResponseBody body = out -> exportService.export(userId, completed, currentUserId, isAdmin, includeArchived, format, out);
+
+        return ResponseEntity.ok()
+                .contentType(format.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"tasks." + format.extension() + "\"")
+                .body(body);
+    }
+
+    // Body is read as a raw stream: rows go to COPY as they are parsed, never materialized as a list
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, TaskFileFormat.TEXT_CSV_VALUE})
+    public ResponseEntity<TaskImportResponse> importTasks(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body
+    ) {
+        return ResponseEntity.ok(importService.importTasks(body, TaskFileFormat.from(contentType)));
     }
 
     @PreAuthorize("isAuthenticated()")
@@ -49,7 +180,7 @@ public class TaskController {
         boolean isAdmin = CurrentUser.isAdmin();
 
         return service.findById(id, currentUserId, isAdmin)
-                .map(ResponseEntity::ok)
+                .map(task -> ResponseEntity.ok().eTag(ETags.ofVersion(task.version())).body(task))
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
@@ -62,7 +193,17 @@ public class TaskController {
         TaskResponse created = service.create(req, currentUserId, isAdmin);
 
         URI location = URI.create("/api/tasks/" + created.id());
-        return ResponseEntity.created(location).body(created);
+        return ResponseEntity.created(location).eTag(ETags.ofVersion(created.version())).body(created);
+    }
+
+    @PreAuthorize("isAuthenticated()")
+    @PostMapping("/batch")
+    public ResponseEntity<List<TaskBatchItemResult>> createBatch(@RequestBody List<TaskCreateRequest> requests) {
+        Long currentUserId = CurrentUser.id();
+        boolean isAdmin = CurrentUser.isAdmin();
+
+        // Items are validated one by one so a single bad row does not fail the whole batch
+        return ResponseEntity.ok(service.createAll(requests, currentUserId, isAdmin));
     }
 
     @PreAuthorize("isAuthenticated()")
@@ -75,14 +216,51 @@ public class TaskController {
         return deleted ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
     }
 
+    @PreAuthorize("isAuthenticated()")
+    @DeleteMapping
+    public ResponseEntity<TaskBulkResponse> deleteAll(
+            @RequestParam(required = false) Long userId,
+            @RequestParam boolean completed,
+            @RequestParam(defaultValue = "false") boolean allUsers
+    ) {
+        Long currentUserId = CurrentUser.id();
+        boolean isAdmin = CurrentUser.isAdmin();
+
+        long deleted = service.deleteAll(userId, completed, allUsers, currentUserId, isAdmin);
+        return ResponseEntity.ok(new TaskBulkResponse(deleted));
+    }
+
     @PreAuthorize("isAuthenticated()")
     @PatchMapping("/{id}")
-    public ResponseEntity<TaskResponse> patch(@PathVariable Long id, @RequestBody TaskUpdateRequest req) {
+    public ResponseEntity<TaskResponse> patch(
+            @PathVariable Long id,
+            @RequestBody TaskUpdateRequest req,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
         Long currentUserId = CurrentUser.id();
         boolean isAdmin = CurrentUser.isAdmin();
+        Long expectedVersion = ETags.expectedVersion(ifMatch);
 
-        return service.updateById(id, req, currentUserId, isAdmin)
-                .map(ResponseEntity::ok)
+        return service.updateById(id, req, currentUserId, isAdmin, expectedVersion)
+                .map(task -> ResponseEntity.ok().eTag(ETags.ofVersion(task.version())).body(task))
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
+
+    @PreAuthorize("isAuthenticated()")
+    @PatchMapping
+    public ResponseEntity<TaskBulkResponse> patchAll(@Valid @RequestBody TaskBulkUpdateRequest req) {
+        Long currentUserId = CurrentUser.id();
+        boolean isAdmin = CurrentUser.isAdmin();
+
+        long affected = service.updateAll(req, currentUserId, isAdmin);
+        return ResponseEntity.ok(new TaskBulkResponse(affected));
+    }
+
+    private static String fingerprint(List<TaskResponse> tasks) {
+        StringBuilder sb = new StringBuilder(tasks.size() * 16);
+        for (TaskResponse task : tasks) {
+            sb.append(task.id()).append(':').append(task.version()).append(';');
+        }
+        return sb.toString();
+    }
 }
@@ -0,0 +1,37 @@
+package io.viktor.backend.tasks;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Per-user task totals. Written only by database triggers on tasks (see V5 migration), read-only here.
+ * total and completed include archived tasks (V12); archived counts those moved to tasks_archive.
+ */
+@Entity
+@Immutable
+@Table(name = "task_counters")
+public class TaskCounter {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false)
+    private long total;
+
+    @Column(nullable = false)
+    private long completed;
+
+    @Column(nullable = false)
+    private long archived;
+
+    protected TaskCounter() {}
+
+    public Long getUserId() { return userId; }
+
+    public long getTotal() { return total; }
+
+    public long getCompleted() { return completed; }
+
+    public long getArchived() { return archived; }
+}
@@ -0,0 +1,21 @@
+package io.viktor.backend.tasks;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+public interface TaskCounterRepository extends JpaRepository<TaskCounter, Long> {
+
+    interface Totals {
+        long getTotal();
+        long getCompleted();
+        long getArchived();
+    }
+
+    // One row per user, so this stays cheap however many tasks exist
+    @Query("""
+            select coalesce(sum(c.total), 0) as total, coalesce(sum(c.completed), 0) as completed,
+                   coalesce(sum(c.archived), 0) as archived
+              from TaskCounter c
+            """)
+    Totals sumAll();
+}
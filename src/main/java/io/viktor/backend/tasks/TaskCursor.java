@@ -0,0 +1,39 @@
+package io.viktor.backend.tasks;
+
+import io.viktor.backend.tasks.dto.TaskResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Keyset position in the (createdAt DESC, id DESC) ordering, exchanged with clients as an opaque token.
+ */
+public record TaskCursor(Instant createdAt, Long id) {
+
+    // Sorts after every real row, so the first page can share the keyset query
+    static final TaskCursor START = new TaskCursor(Instant.parse("3000-01-01T00:00:00Z"), Long.MAX_VALUE);
+
+    private static final String SEPARATOR = "|";
+
+    public static TaskCursor of(TaskResponse task) {
+        return new TaskCursor(task.createdAt(), task.id());
+    }
+
+    public String encode() {
+        String raw = createdAt.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static TaskCursor decode(String token) {
+        if (token == null || token.isBlank()) return START;
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int sep = raw.indexOf(SEPARATOR);
+            return new TaskCursor(Instant.parse(raw.substring(0, sep)), Long.parseLong(raw.substring(sep + 1)));
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
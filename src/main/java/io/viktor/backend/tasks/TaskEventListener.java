@@ -0,0 +1,126 @@
+package io.viktor.backend.tasks;
+
+import io.viktor.backend.tasks.dto.TaskEvent;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Holds the single LISTEN connection of this instance and hands every notification to the
+ * local TaskStreamRegistry and TaskCache, so rows written by other instances are not served stale.
+ * The connection is opened outside the pool, since it never goes back.
+ */
+@Component
+public class TaskEventListener implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskEventListener.class);
+
+    private static final int POLL_TIMEOUT_MS = 5_000;
+    private static final long RECONNECT_DELAY_MS = 2_000;
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final JsonMapper jsonMapper;
+    private final TaskStreamRegistry registry;
+    private final TaskCache taskCache;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    public TaskEventListener(
+            @Value("${spring.datasource.url}") String url,
+            @Value("${spring.datasource.username}") String username,
+            @Value("${spring.datasource.password}") String password,
+            JsonMapper jsonMapper,
+            TaskStreamRegistry registry,
+            TaskCache taskCache
+    ) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.jsonMapper = jsonMapper;
+        this.registry = registry;
+        this.taskCache = taskCache;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        thread = new Thread(this::listen, "task-events-listener");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        thread.interrupt();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen() {
+        boolean reconnecting = false;
+        while (running) {
+            try (Connection con = DriverManager.getConnection(url, username, password)) {
+                try (Statement st = con.createStatement()) {
+                    st.execute("LISTEN " + TaskEventPublisher.CHANNEL);
+                }
+                if (reconnecting) {
+                    // Notifications sent while disconnected are lost: tell clients to catch up via /changes
+                    // and forget every cached row, any of them may have changed meanwhile
+                    publishLocally(new TaskEvent(TaskEvent.Type.RESYNC, null, null));
+                    reconnecting = false;
+                }
+
+                PGConnection pg = con.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pg.getNotifications(POLL_TIMEOUT_MS);
+                    if (notifications == null) continue;
+                    for (PGNotification notification : notifications) {
+                        dispatch(notification.getParameter());
+                    }
+                }
+            } catch (SQLException ex) {
+                if (!running) return;
+                log.warn("Task event listener disconnected, retrying in {} ms: {}", RECONNECT_DELAY_MS, ex.getMessage());
+                reconnecting = true;
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void dispatch(String payload) {
+        try {
+            publishLocally(jsonMapper.readValue(payload, TaskEvent.class));
+        } catch (JacksonException ex) {
+            log.warn("Ignoring malformed task event: {}", payload);
+        }
+    }
+
+    // Eviction first and independent of clients: dispatch only queues, it never waits on a socket
+    private void publishLocally(TaskEvent event) {
+        taskCache.evictFor(event);
+        registry.dispatch(event);
+    }
+}
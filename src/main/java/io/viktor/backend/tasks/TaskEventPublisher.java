@@ -0,0 +1,54 @@
+package io.viktor.backend.tasks;
+
+import io.viktor.backend.tasks.dto.TaskEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.json.JsonMapper;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Publishes task change events with pg_notify. Called inside the write transaction, the notification
+ * is delivered by Postgres only if and when that transaction commits (once per commit, never on rollback).
+ */
+@Component
+public class TaskEventPublisher {
+
+    static final String CHANNEL = "task_events";
+
+    // NOTIFY payloads are capped at 8000 bytes: larger id lists degrade to a "refetch" event
+    private static final int MAX_IDS_PER_EVENT = 200;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JsonMapper jsonMapper;
+
+    public TaskEventPublisher(DataSource dataSource, JsonMapper jsonMapper) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jsonMapper = jsonMapper;
+    }
+
+    public void publish(TaskEvent.Type type, Long userId, Long taskId) {
+        publish(type, userId, Collections.singletonList(taskId));
+    }
+
+    // Rows changed by filter: subscribers only learn that they should refetch
+    public void publishUnlisted(TaskEvent.Type type, Long userId) {
+        publish(type, userId, (Collection<Long>) null);
+    }
+
+    public void publish(TaskEvent.Type type, Long userId, Collection<Long> taskIds) {
+        List<Long> ids = (taskIds == null || taskIds.size() > MAX_IDS_PER_EVENT) ? null : new ArrayList<>(taskIds);
+        String payload = jsonMapper.writeValueAsString(new TaskEvent(type, userId, ids));
+
+        jdbcTemplate.execute("SELECT pg_notify(?, ?)", (PreparedStatementCallback<Boolean>) ps -> {
+            ps.setString(1, CHANNEL);
+            ps.setString(2, payload);
+            return ps.execute();
+        });
+    }
+}
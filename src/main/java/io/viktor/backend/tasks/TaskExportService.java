@@ -0,0 +1,129 @@
+package io.viktor.backend.tasks;
+
+import io.viktor.backend.common.csv.Csv;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams tasks straight from a forward-only server-side cursor to the response,
+ * so memory stays flat no matter how many rows are exported.
+ */
+@Service
+public class TaskExportService {
+
+    private static final String CSV_HEADER = "id,title,completed,userId,createdAt,version";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTx;
+    private final JsonMapper jsonMapper;
+
+    public TaskExportService(
+            DataSource dataSource,
+            PlatformTransactionManager transactionManager,
+            JsonMapper jsonMapper,
+            @Value("${tasks.export.fetch-size:1000}") int fetchSize
+    ) {
+        // PgJDBC only uses a cursor (instead of buffering the whole result) with a fetch size inside a transaction
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+
+        this.jsonMapper = jsonMapper;
+    }
+
+    /**
+     * Same visibility rules as TaskService.findAll: a USER only ever exports their own tasks.
+     * With includeArchived, rows from tasks_archive follow the live ones.
+     */
+    public void export(
+            Long requestedUserId,
+            Boolean completed,
+            Long currentUserId,
+            boolean isAdmin,
+            boolean includeArchived,
+            TaskFileFormat format,
+            OutputStream out
+    ) {
+        // USER: ignore requestedUserId
+        Long userId = isAdmin ? requestedUserId : currentUserId;
+
+        List<Object> args = new ArrayList<>(4);
+        StringBuilder sql = select("tasks", userId, completed, args);
+        // Only completed tasks are ever archived
+        if (includeArchived && !Boolean.FALSE.equals(completed)) {
+            sql.append(" UNION ALL ").append(select("tasks_archive", userId, completed, args));
+        }
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        RowCallbackHandler rowWriter = (format == TaskFileFormat.CSV)
+                ? rs -> write(writer, toCsv(rs))
+                : rs -> write(writer, jsonMapper.writeValueAsString(TaskRowMapper.INSTANCE.mapRow(rs, 0)));
+
+        try {
+            if (format == TaskFileFormat.CSV) {
+                write(writer, CSV_HEADER);
+            }
+            readOnlyTx.executeWithoutResult(status -> jdbcTemplate.query(sql.toString(), rowWriter, args.toArray()));
+            writer.flush();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static StringBuilder select(String table, Long userId, Boolean completed, List<Object> args) {
+        StringBuilder sql = new StringBuilder("SELECT " + TaskRowMapper.COLUMNS + " FROM " + table);
+        List<String> where = new ArrayList<>(2);
+        if (userId != null) {
+            where.add("user_id = ?");
+            args.add(userId);
+        }
+        if (completed != null) {
+            where.add("completed = ?");
+            args.add(completed);
+        }
+        if (!where.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", where));
+        }
+        return sql;
+    }
+
+    private static void write(Writer writer, String line) {
+        try {
+            writer.write(line);
+            writer.write('\n');
+        } catch (IOException ex) {
+            // Usually the client went away: abort the query instead of reading the rest of the cursor
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static String toCsv(ResultSet rs) throws SQLException {
+        return rs.getLong("id") + ","
+                + Csv.escape(rs.getString("title")) + ","
+                + rs.getBoolean("completed") + ","
+                + rs.getLong("user_id") + ","
+                + rs.getObject("created_at", OffsetDateTime.class).toInstant() + ","
+                + rs.getLong("version");
+    }
+}
@@ -0,0 +1,36 @@
+package io.viktor.backend.tasks;
+
+import org.springframework.http.MediaType;
+
+public enum TaskFileFormat {
+    NDJSON(MediaType.APPLICATION_NDJSON, "ndjson"),
+    CSV(MediaType.parseMediaType(TaskFileFormat.TEXT_CSV_VALUE), "csv");
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    TaskFileFormat(MediaType mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public static TaskFileFormat from(String value) {
+        for (TaskFileFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(value)) return format;
+        }
+        throw new IllegalArgumentException("Unsupported format: " + value);
+    }
+
+    public static TaskFileFormat from(MediaType contentType) {
+        for (TaskFileFormat format : values()) {
+            if (format.mediaType.isCompatibleWith(contentType)) return format;
+        }
+        throw new IllegalArgumentException("Unsupported content type: " + contentType);
+    }
+
+    public MediaType mediaType() { return mediaType; }
+
+    public String extension() { return extension; }
+}
@@ -0,0 +1,374 @@
+package io.viktor.backend.tasks;
+
+import io.viktor.backend.common.csv.Csv;
+import io.viktor.backend.tasks.dto.TaskEvent;
+import io.viktor.backend.tasks.dto.TaskImportResponse;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Bulk import through COPY FROM STDIN. Input is parsed as a stream and sent in chunks: each chunk
+ * first resolves its unseen user ids with one query, then goes to the server as a single COPY.
+ * The whole import runs in one transaction, so a server-side failure leaves no tasks behind.
+ * Missing monthly partitions are created before each chunk's COPY in a short transaction of their own:
+ * the partition locks are then not held until the import commits, which would stall partition
+ * maintenance and other imports. A failed import can leave empty partitions, which is harmless.
+ * createdAt is limited to tasks.import.min-created-at up to the months partition maintenance keeps
+ * ahead, so a stray date cannot make one import create thousands of partitions.
+ */
+@Service
+public class TaskImportService {
+
+    private static final int CHUNK_SIZE = 5000;
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final int MAX_TITLE_LENGTH = 255;
+
+    // id and version come from column defaults; ids still advance by the pooled sequence increment
+    private static final String COPY_SQL = "COPY tasks (title, completed, user_id, created_at) FROM STDIN WITH (FORMAT csv)";
+    private static final String EXISTING_USERS_SQL = "SELECT id FROM users WHERE id = ANY(?)";
+    private static final String ENSURE_PARTITION_SQL = "SELECT ensure_monthly_partition('tasks', ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate tx;
+    private final TransactionTemplate partitionTx;
+    private final JsonMapper jsonMapper;
+    private final TaskEventPublisher eventPublisher;
+    private final Instant minCreatedAt;
+    private final int monthsAhead;
+
+    public TaskImportService(
+            DataSource dataSource,
+            PlatformTransactionManager transactionManager,
+            JsonMapper jsonMapper,
+            TaskEventPublisher eventPublisher,
+            @Value("${tasks.import.min-created-at:2000-01-01T00:00:00Z}") String minCreatedAt,
+            @Value("${tasks.partitions.months-ahead:3}") int monthsAhead
+    ) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.tx = new TransactionTemplate(transactionManager);
+        this.partitionTx = new TransactionTemplate(transactionManager);
+        this.partitionTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.jsonMapper = jsonMapper;
+        this.eventPublisher = eventPublisher;
+        this.minCreatedAt = Instant.parse(minCreatedAt);
+        this.monthsAhead = monthsAhead;
+    }
+
+    public TaskImportResponse importTasks(InputStream in, TaskFileFormat format) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+        Instant now = Instant.now();
+
+        return tx.execute(status -> {
+            TaskImportResponse result = jdbcTemplate.execute((ConnectionCallback<TaskImportResponse>) con -> {
+                try {
+                    return new Import(con, now).run(format == TaskFileFormat.CSV ? csvRows(reader) : ndjsonRows(reader));
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+            if (result.accepted() > 0) {
+                eventPublisher.publishUnlisted(TaskEvent.Type.CREATED, null);
+            }
+            return result;
+        });
+    }
+
+    private record Row(long line, String title, boolean completed, long userId, Instant createdAt) {}
+
+    // Either a parsed row or the reason the line was rejected
+    private record Parsed(Row row, String error) {}
+
+    @FunctionalInterface
+    private interface RowSource {
+        /** Returns null at end of input. */
+        Parsed next() throws IOException;
+    }
+
+    private final class Import {
+        private final Connection con;
+        private final Instant now;
+        // Exclusive: the first month past the partitions maintenance creates ahead
+        private final Instant maxCreatedAt;
+        private final Set<Long> knownUsers = new HashSet<>();
+        private final Set<LocalDate> ensuredMonths = new HashSet<>();
+        private final Set<Long> unknownUsers = new HashSet<>();
+        private final List<String> errors = new ArrayList<>();
+        private long accepted;
+        private long rejected;
+
+        Import(Connection con, Instant now) {
+            this.con = con;
+            this.now = now;
+            this.maxCreatedAt = LocalDate.ofInstant(now, ZoneOffset.UTC).withDayOfMonth(1)
+                    .plusMonths(monthsAhead + 1L).atStartOfDay().toInstant(ZoneOffset.UTC);
+        }
+
+        TaskImportResponse run(RowSource source) throws IOException, SQLException {
+            List<Row> chunk = new ArrayList<>(CHUNK_SIZE);
+            Parsed parsed;
+            while ((parsed = source.next()) != null) {
+                if (parsed.error() != null) {
+                    reject(parsed.error());
+                    continue;
+                }
+                Instant createdAt = parsed.row().createdAt();
+                if (createdAt != null && (createdAt.isBefore(minCreatedAt) || !createdAt.isBefore(maxCreatedAt))) {
+                    reject("line " + parsed.row().line() + ": createdAt must be on or after " + minCreatedAt
+                            + " and before " + maxCreatedAt);
+                    continue;
+                }
+                chunk.add(parsed.row());
+                if (chunk.size() == CHUNK_SIZE) {
+                    flush(chunk);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                flush(chunk);
+            }
+            return new TaskImportResponse(accepted, rejected, errors);
+        }
+
+        private void flush(List<Row> chunk) throws SQLException {
+            resolveUsers(chunk);
+
+            StringBuilder data = new StringBuilder(chunk.size() * 64);
+            int rows = 0;
+            Set<LocalDate> months = new TreeSet<>();
+            for (Row row : chunk) {
+                if (!knownUsers.contains(row.userId())) {
+                    reject("line " + row.line() + ": User not found: " + row.userId());
+                    continue;
+                }
+                // created_at is a plain TIMESTAMP holding UTC wall-clock time
+                LocalDateTime createdAt = LocalDateTime.ofInstant(row.createdAt() != null ? row.createdAt() : now, ZoneOffset.UTC);
+                LocalDate month = createdAt.toLocalDate().withDayOfMonth(1);
+                if (!ensuredMonths.contains(month)) months.add(month);
+
+                data.append(Csv.escape(row.title())).append(',')
+                        .append(row.completed()).append(',')
+                        .append(row.userId()).append(',')
+                        .append(createdAt).append('\n');
+                rows++;
+            }
+            if (rows == 0) return;
+
+            // Historic created_at values may fall before the oldest monthly partition. Only the months
+            // present in the chunk are ensured. Runs on another connection and commits at once; ATTACH
+            // only needs SHARE UPDATE EXCLUSIVE on tasks, which does not conflict with the rows this
+            // import has already copied.
+            if (!months.isEmpty()) {
+                partitionTx.executeWithoutResult(status -> {
+                    for (LocalDate month : months) {
+                        jdbcTemplate.queryForObject(ENSURE_PARTITION_SQL, Boolean.class, month);
+                    }
+                });
+                ensuredMonths.addAll(months);
+            }
+
+            byte[] bytes = data.toString().getBytes(StandardCharsets.UTF_8);
+            CopyIn copy = con.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL);
+            try {
+                copy.writeToCopy(bytes, 0, bytes.length);
+                accepted += copy.endCopy();
+            } finally {
+                if (copy.isActive()) copy.cancelCopy();
+            }
+        }
+
+        // Only ids not seen in earlier chunks hit the database
+        private void resolveUsers(List<Row> chunk) throws SQLException {
+            Set<Long> unseen = new HashSet<>();
+            for (Row row : chunk) {
+                if (!knownUsers.contains(row.userId()) && !unknownUsers.contains(row.userId())) {
+                    unseen.add(row.userId());
+                }
+            }
+            if (unseen.isEmpty()) return;
+
+            try (PreparedStatement ps = con.prepareStatement(EXISTING_USERS_SQL)) {
+                ps.setArray(1, con.createArrayOf("bigint", unseen.toArray()));
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        long id = rs.getLong(1);
+                        knownUsers.add(id);
+                        unseen.remove(id);
+                    }
+                }
+            }
+            unknownUsers.addAll(unseen);
+        }
+
+        private void reject(String error) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(error);
+            }
+        }
+    }
+
+    private RowSource ndjsonRows(BufferedReader reader) {
+        long[] lineNo = {0};
+        return () -> {
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null) return null;
+                lineNo[0]++;
+            } while (line.isBlank());
+
+            JsonNode node;
+            try {
+                node = jsonMapper.readTree(line);
+            } catch (JacksonException ex) {
+                return new Parsed(null, "line " + lineNo[0] + ": Invalid JSON");
+            }
+            if (!node.isObject()) {
+                return new Parsed(null, "line " + lineNo[0] + ": Expected a JSON object");
+            }
+
+            JsonNode completed = node.get("completed");
+            if (completed != null && !completed.isNull() && !completed.isBoolean()) {
+                return new Parsed(null, "line " + lineNo[0] + ": completed must be a boolean");
+            }
+            JsonNode userId = node.get("userId");
+            if (userId != null && !userId.isNull() && !userId.canConvertToLong()) {
+                return new Parsed(null, "line " + lineNo[0] + ": userId must be a number");
+            }
+
+            return toRow(lineNo[0],
+                    text(node.get("title")),
+                    completed != null && completed.asBoolean(),
+                    userId == null || userId.isNull() ? null : userId.asLong(),
+                    text(node.get("createdAt")));
+        };
+    }
+
+    private static String text(JsonNode node) {
+        return node == null || node.isNull() ? null : node.asString();
+    }
+
+    // Columns are matched by header name, so an export file can be imported back as-is
+    private RowSource csvRows(BufferedReader reader) throws IOException {
+        Csv.Reader csv = new Csv.Reader(reader);
+        List<String> header = csv.next();
+        if (header == null) return () -> null;
+
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim(), i);
+        }
+        if (!columns.containsKey("title") || !columns.containsKey("userId")) {
+            throw new IllegalArgumentException("CSV header must contain title and userId");
+        }
+
+        long[] recordNo = {1};
+        return () -> {
+            List<String> record;
+            do {
+                record = csv.next();
+                if (record == null) return null;
+                recordNo[0]++;
+            } while (record.size() == 1 && record.get(0).isBlank());
+
+            String completed = column(record, columns, "completed");
+            if (completed != null && !completed.equalsIgnoreCase("true") && !completed.equalsIgnoreCase("false")) {
+                return new Parsed(null, "line " + recordNo[0] + ": completed must be true or false");
+            }
+            String userId = column(record, columns, "userId");
+            Long parsedUserId;
+            try {
+                parsedUserId = userId == null ? null : Long.valueOf(userId.trim());
+            } catch (NumberFormatException ex) {
+                return new Parsed(null, "line " + recordNo[0] + ": userId must be a number");
+            }
+
+            return toRow(recordNo[0],
+                    column(record, columns, "title"),
+                    Boolean.parseBoolean(completed),
+                    parsedUserId,
+                    column(record, columns, "createdAt"));
+        };
+    }
+
+    private static String column(List<String> record, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= record.size()) return null;
+        String value = record.get(index);
+        return value.isEmpty() ? null : value;
+    }
+
+    private static Parsed toRow(long line, String title, boolean completed, Long userId, String createdAt) {
+        if (title == null || title.isBlank()) {
+            return new Parsed(null, "line " + line + ": title must not be blank");
+        }
+        if (title.length() > MAX_TITLE_LENGTH) {
+            return new Parsed(null, "line " + line + ": title must be at most " + MAX_TITLE_LENGTH + " characters");
+        }
+        if (!isStorableText(title)) {
+            // One such value would abort the COPY, and with it every row of the import
+            return new Parsed(null, "line " + line + ": title must not contain NUL characters or unpaired surrogates");
+        }
+        if (userId == null) {
+            return new Parsed(null, "line " + line + ": userId is required");
+        }
+
+        Instant parsedCreatedAt = null;
+        if (createdAt != null) {
+            try {
+                parsedCreatedAt = Instant.parse(createdAt.trim());
+            } catch (DateTimeParseException ex) {
+                return new Parsed(null, "line " + line + ": createdAt must be an ISO-8601 instant");
+            }
+        }
+        return new Parsed(new Row(line, title, completed, userId, parsedCreatedAt), null);
+    }
+
+    // PostgreSQL text cannot hold U+0000, and an unpaired surrogate has no UTF-8 encoding
+    private static boolean isStorableText(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\u0000') return false;
+            if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
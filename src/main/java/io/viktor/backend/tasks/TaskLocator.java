@@ -0,0 +1,28 @@
+package io.viktor.backend.tasks;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.Instant;
+
+/**
+ * id -> created_at of every live task. Written only by database triggers on tasks (see V11 migration);
+ * used in id-based queries so Postgres can prune tasks down to a single monthly partition.
+ */
+@Entity
+@Immutable
+@Table(name = "task_locator")
+public class TaskLocator {
+
+    @Id
+    private Long id;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    protected TaskLocator() {}
+
+    public Long getId() { return id; }
+
+    public Instant getCreatedAt() { return createdAt; }
+}
@@ -0,0 +1,127 @@
+package io.viktor.backend.tasks;
+
+import io.viktor.backend.tasks.dto.TaskEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Scheduled upkeep of the partitioned tasks table (V8): keeps monthly partitions created ahead of time
+ * and moves old completed tasks into tasks_archive in short batches. Every instance runs the jobs;
+ * a transaction-scoped advisory lock lets only one of them archive at a time.
+ */
+@Component
+public class TaskPartitionMaintenance {
+
+    private static final String ARCHIVE_LOCK_SQL = "SELECT pg_try_advisory_xact_lock(hashtext('tasks_archive'))";
+    private static final String ARCHIVE_STORAGE = "toast_tuple_target=128";
+    // Read by the counter and tombstone triggers (V12): the DELETE below is a move, not a user delete
+    private static final String ARCHIVING_SQL = "SELECT set_config('tasks.archiving', 'on', true)";
+
+    private static final String ARCHIVE_BATCH_SQL = """
+            WITH batch AS (
+                SELECT id, created_at FROM tasks
+                 WHERE completed AND created_at < ?
+                 ORDER BY created_at
+                 LIMIT ?
+                   FOR UPDATE SKIP LOCKED
+            ), moved AS (
+                DELETE FROM tasks t USING batch b
+                 WHERE t.id = b.id AND t.created_at = b.created_at
+             RETURNING t.id, t.title, t.completed, t.user_id, t.created_at, t.version, t.updated_at
+            )
+            INSERT INTO tasks_archive (id, title, completed, user_id, created_at, version, updated_at)
+            SELECT id, title, completed, user_id, created_at, version, updated_at FROM moved
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate tx;
+    private final TaskCache taskCache;
+    private final TaskEventPublisher eventPublisher;
+    private final int monthsAhead;
+    private final boolean archiveEnabled;
+    private final Duration archiveAfter;
+    private final int archiveBatchSize;
+    private final int archiveMaxBatches;
+
+    public TaskPartitionMaintenance(
+            DataSource dataSource,
+            PlatformTransactionManager transactionManager,
+            TaskCache taskCache,
+            TaskEventPublisher eventPublisher,
+            @Value("${tasks.partitions.months-ahead:3}") int monthsAhead,
+            @Value("${tasks.archive.enabled:true}") boolean archiveEnabled,
+            @Value("${tasks.archive.after:90d}") Duration archiveAfter,
+            @Value("${tasks.archive.batch-size:5000}") int archiveBatchSize,
+            @Value("${tasks.archive.max-batches:200}") int archiveMaxBatches
+    ) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.tx = new TransactionTemplate(transactionManager);
+        this.taskCache = taskCache;
+        this.eventPublisher = eventPublisher;
+        this.monthsAhead = monthsAhead;
+        this.archiveEnabled = archiveEnabled;
+        this.archiveAfter = archiveAfter;
+        this.archiveBatchSize = archiveBatchSize;
+        this.archiveMaxBatches = archiveMaxBatches;
+    }
+
+    // Runs at startup too, so a fresh deployment never inserts into a month without a partition
+    @Scheduled(initialDelay = 0, fixedDelayString = "${tasks.partitions.interval:PT6H}")
+    public void ensurePartitions() {
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        tx.executeWithoutResult(status -> {
+            // Never queue behind a long import holding the partition lock: the next run retries
+            jdbcTemplate.execute("SET LOCAL lock_timeout = '5s'");
+            jdbcTemplate.queryForObject("SELECT ensure_task_partitions(?, ?)", Integer.class, now, now.plusMonths(monthsAhead));
+        });
+    }
+
+    /**
+     * Moves completed tasks older than tasks.archive.after into tasks_archive. Each batch is one
+     * DELETE ... RETURNING feeding an INSERT, committed on its own so locks stay short. Archived tasks
+     * stay in /summary and produce no sync tombstones. Returns the number of archived tasks.
+     */
+    @Scheduled(initialDelayString = "${tasks.archive.interval:PT1H}", fixedDelayString = "${tasks.archive.interval:PT1H}")
+    public long archive() {
+        if (!archiveEnabled) return 0;
+
+        LocalDateTime cutoff = LocalDateTime.ofInstant(Instant.now().minus(archiveAfter), ZoneOffset.UTC);
+        long total = 0;
+        for (int i = 0; i < archiveMaxBatches; i++) {
+            Integer moved = tx.execute(status -> {
+                if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(ARCHIVE_LOCK_SQL, Boolean.class))) {
+                    return null; // another instance is archiving
+                }
+                LocalDateTime oldest = jdbcTemplate.queryForObject(
+                        "SELECT min(created_at) FROM tasks WHERE completed AND created_at < ?", LocalDateTime.class, cutoff);
+                if (oldest == null) return 0;
+
+                jdbcTemplate.queryForObject("SELECT ensure_task_partitions(?, ?, 'tasks_archive', ?)", Integer.class,
+                        oldest, cutoff, ARCHIVE_STORAGE);
+                jdbcTemplate.queryForObject(ARCHIVING_SQL, String.class);
+                return jdbcTemplate.update(ARCHIVE_BATCH_SQL, cutoff, archiveBatchSize);
+            });
+            if (moved == null) break;
+
+            total += moved;
+            if (moved < archiveBatchSize) break;
+        }
+
+        if (total > 0) {
+            taskCache.evictAll();
+            // Not DELETED: the tasks still exist, they only left the default listings
+            eventPublisher.publishUnlisted(TaskEvent.Type.RESYNC, null);
+        }
+        return total;
+    }
+}
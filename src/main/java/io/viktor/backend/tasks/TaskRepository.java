@@ -1,15 +1,135 @@
 package io.viktor.backend.tasks;
 
-import org.springframework.data.domain.Page;
+import io.viktor.backend.tasks.dto.TaskResponse;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 
 public interface TaskRepository  extends JpaRepository<Task, Long> {
 
-    Page<Task> findByUserId(Long userId, Pageable pageable);
+    // Read paths project straight into TaskResponse: no managed entities, snapshots or User proxies
+
+    String RESPONSE = "new io.viktor.backend.tasks.dto.TaskResponse(t.id, t.title, t.completed, t.user.id, t.createdAt, t.version)";
+
+    // Statements by id also match created_at from task_locator (V11), so Postgres prunes tasks to the
+    // one partition holding the row instead of probing every month's primary key index
+    String LOCATED = "t.createdAt = (select l.createdAt from TaskLocator l where l.id = :id)";
+
+    @Query("select " + RESPONSE + " from Task t where t.id = :id and " + LOCATED)
+    Optional<TaskResponse> findResponseById(Long id);
+
+    // Page content only: totals come from task_counters (TaskService), so no COUNT(*) runs per request
+
+    @Query("select " + RESPONSE + " from Task t")
+    List<TaskResponse> findAllResponses(Pageable pageable);
+
+    @Query("select " + RESPONSE + " from Task t where t.user.id = :userId")
+    List<TaskResponse> findResponsesByUserId(Long userId, Pageable pageable);
+
+    @Query("select " + RESPONSE + " from Task t where t.completed = :completed")
+    List<TaskResponse> findResponsesByCompleted(Boolean completed, Pageable pageable);
+
+    @Query("select " + RESPONSE + " from Task t where t.user.id = :userId and t.completed = :completed")
+    List<TaskResponse> findResponsesByUserIdAndCompleted(Long userId, Boolean completed, Pageable pageable);
+
+    // Keyset pagination: rows strictly after (createdAt, id) in (createdAt DESC, id DESC) order, no COUNT
+
+    @Query("select " + RESPONSE + """
+             from Task t
+            where t.createdAt < :createdAt or (t.createdAt = :createdAt and t.id < :id)
+            order by t.createdAt desc, t.id desc
+            """)
+    List<TaskResponse> findSliceAfter(Instant createdAt, Long id, Limit limit);
+
+    @Query("select " + RESPONSE + """
+             from Task t
+            where t.user.id = :userId
+              and (t.createdAt < :createdAt or (t.createdAt = :createdAt and t.id < :id))
+            order by t.createdAt desc, t.id desc
+            """)
+    List<TaskResponse> findSliceByUserIdAfter(Long userId, Instant createdAt, Long id, Limit limit);
+
+    @Query("select " + RESPONSE + """
+             from Task t
+            where t.completed = :completed
+              and (t.createdAt < :createdAt or (t.createdAt = :createdAt and t.id < :id))
+            order by t.createdAt desc, t.id desc
+            """)
+    List<TaskResponse> findSliceByCompletedAfter(Boolean completed, Instant createdAt, Long id, Limit limit);
+
+    @Query("select " + RESPONSE + """
+             from Task t
+            where t.user.id = :userId and t.completed = :completed
+              and (t.createdAt < :createdAt or (t.createdAt = :createdAt and t.id < :id))
+            order by t.createdAt desc, t.id desc
+            """)
+    List<TaskResponse> findSliceByUserIdAndCompletedAfter(Long userId, Boolean completed, Instant createdAt, Long id, Limit limit);
+
+    // Set-based writes: one statement regardless of how many rows match. Rows already in the
+    // requested state are skipped so they keep their version (and ETag).
+
+    @Modifying
+    @Query("""
+            update Task t
+               set t.completed = coalesce(:completed, t.completed),
+                   t.title = coalesce(:title, t.title),
+                   t.version = t.version + 1
+             where (t.id, t.createdAt) in (select l.id, l.createdAt from TaskLocator l where l.id in :ids)
+               and (:ownerId is null or t.user.id = :ownerId)
+               and ((:completed is not null and t.completed <> :completed)
+                    or (:title is not null and t.title <> :title))
+            """)
+    int updateByIds(List<Long> ids, Long ownerId, Boolean completed, String title);
+
+    @Modifying
+    @Query("""
+            update Task t
+               set t.completed = coalesce(:completed, t.completed),
+                   t.title = coalesce(:title, t.title),
+                   t.version = t.version + 1
+             where (:userId is null or t.user.id = :userId)
+               and (:whereCompleted is null or t.completed = :whereCompleted)
+               and ((:completed is not null and t.completed <> :completed)
+                    or (:title is not null and t.title <> :title))
+            """)
+    int updateByFilter(Long userId, Boolean whereCompleted, Boolean completed, String title);
+
+    @Query("select t.user.id from Task t where t.id = :id and " + LOCATED)
+    Optional<Long> findUserIdById(Long id);
+
+    // Optimistic single-row update: 0 rows means the version moved on (or the task is gone)
+    @Modifying
+    @Query("""
+            update Task t
+               set t.title = :title,
+                   t.completed = :completed,
+                   t.version = t.version + 1
+             where t.id = :id and t.createdAt = :createdAt and t.version = :version
+            """)
+    int updateVersioned(Long id, Instant createdAt, long version, String title, boolean completed);
 
-    Page<Task> findByCompleted(Boolean completed, Pageable pageable);
+    // Ownership-aware delete in one round trip: no load, no entity hydration
+    @Modifying
+    @Query("delete from Task t where t.id = :id and " + LOCATED + " and (:isAdmin = true or t.user.id = :userId)")
+    int deleteOwned(Long id, Long userId, boolean isAdmin);
 
-    Page<Task> findByUserIdAndCompleted(Long userId, Boolean completed, Pageable pageable);
+    // Deletes at most chunkSize matching rows in its own short transaction, skipping rows locked by other writers
+    @Transactional
+    @Modifying
+    @Query(value = """
+            DELETE FROM tasks
+             WHERE (id, created_at) IN (SELECT id, created_at FROM tasks
+                           WHERE completed = :completed
+                             AND (CAST(:userId AS BIGINT) IS NULL OR user_id = CAST(:userId AS BIGINT))
+                           LIMIT :chunkSize
+                           FOR UPDATE SKIP LOCKED)
+            """, nativeQuery = true)
+    int deleteChunk(Long userId, boolean completed, int chunkSize);
 }
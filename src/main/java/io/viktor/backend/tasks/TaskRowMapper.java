@@ -0,0 +1,32 @@
+package io.viktor.backend.tasks;
+
+import io.viktor.backend.tasks.dto.TaskResponse;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+
+/**
+ * Maps a plain JDBC row of the tasks table (id, title, completed, user_id, created_at, version).
+ */
+final class TaskRowMapper implements RowMapper<TaskResponse> {
+
+    static final TaskRowMapper INSTANCE = new TaskRowMapper();
+
+    static final String COLUMNS = "id, title, completed, user_id, created_at, version";
+
+    private TaskRowMapper() {}
+
+    @Override
+    public TaskResponse mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return new TaskResponse(
+                rs.getLong("id"),
+                rs.getString("title"),
+                rs.getBoolean("completed"),
+                rs.getLong("user_id"),
+                rs.getObject("created_at", OffsetDateTime.class).toInstant(),
+                rs.getLong("version")
+        );
+    }
+}
@@ -0,0 +1,85 @@
+package io.viktor.backend.tasks;
+
+import io.viktor.backend.tasks.dto.TaskResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ranked full-text search over task titles, served by the GIN index on tasks.title_tsv.
+ * Only the newest tasks.search.max-candidates matches are ranked. A common word can match millions
+ * of rows, and ranking reads every matched tsvector, so the best match older than that window is
+ * not returned.
+ */
+@Service
+public class TaskSearchService {
+
+    private static final int MAX_RESULTS = 100;
+    private static final int MAX_QUERY_LENGTH = 200;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxCandidates;
+
+    public TaskSearchService(DataSource dataSource, @Value("${tasks.search.max-candidates:1000}") int maxCandidates) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.maxCandidates = maxCandidates;
+    }
+
+    /**
+     * Same visibility rules as TaskService.findAll: a USER only ever searches their own tasks.
+     * The query uses web search syntax: words, "quoted phrases", OR and -exclusions.
+     */
+    public List<TaskResponse> search(
+            String q,
+            Long requestedUserId,
+            Boolean completed,
+            Long currentUserId,
+            boolean isAdmin,
+            int size
+    ) {
+        if (q == null || q.isBlank()) {
+            throw new IllegalArgumentException("q must not be blank");
+        }
+        if (q.length() > MAX_QUERY_LENGTH) {
+            throw new IllegalArgumentException("q must be at most " + MAX_QUERY_LENGTH + " characters");
+        }
+        if (size < 1 || size > MAX_RESULTS) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_RESULTS);
+        }
+
+        // USER: ignore requestedUserId
+        Long userId = isAdmin ? requestedUserId : currentUserId;
+
+        List<Object> args = new ArrayList<>(5);
+        args.add(q);
+        StringBuilder where = new StringBuilder("title_tsv @@ query");
+        if (userId != null) {
+            where.append(" AND user_id = ?");
+            args.add(userId);
+        }
+        if (completed != null) {
+            where.append(" AND completed = ?");
+            args.add(completed);
+        }
+        args.add(maxCandidates);
+        args.add(size);
+
+        // Candidates come newest first: partitions are by month, so the scan stops at the first
+        // partitions that yield enough matches instead of visiting every one
+        String sql = "SELECT " + TaskRowMapper.COLUMNS + """
+                  FROM (SELECT t.*, query
+                          FROM tasks t, websearch_to_tsquery('simple', ?) query
+                         WHERE %s
+                         ORDER BY created_at DESC, id DESC
+                         LIMIT ?) candidates
+                 ORDER BY ts_rank(title_tsv, query) DESC, created_at DESC, id DESC
+                 LIMIT ?
+                """.formatted(where);
+
+        return jdbcTemplate.query(sql, TaskRowMapper.INSTANCE, args.toArray());
+    }
+}
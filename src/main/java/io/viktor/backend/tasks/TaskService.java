@@ -1,25 +1,70 @@
 package io.viktor.backend.tasks;
 
+import io.micrometer.core.annotation.Timed;
+import io.viktor.backend.common.exception.PreconditionFailedException;
+import io.viktor.backend.common.web.CursorPage;
+import io.viktor.backend.tasks.dto.TaskBatchItemResult;
+import io.viktor.backend.tasks.dto.TaskBulkUpdateRequest;
 import io.viktor.backend.tasks.dto.TaskUpdateRequest;
 import io.viktor.backend.users.User;
 import io.viktor.backend.users.UserRepository;
 import io.viktor.backend.tasks.dto.TaskCreateRequest;
+import io.viktor.backend.tasks.dto.TaskEvent;
 import io.viktor.backend.tasks.dto.TaskResponse;
+import io.viktor.backend.tasks.dto.TaskSummaryResponse;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
+// One timer per public method (tag method=...); recorded only with management.observations.annotations.enabled
+@Timed(value = "task_service", percentiles = {0.5, 0.95, 0.99})
 @Service
 public class TaskService {
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+    private static final int MAX_BATCH_SIZE = 1000;
+    private static final int DELETE_CHUNK_SIZE = 1000;
+    private static final Comparator<TaskResponse> NEWEST_FIRST =
+            Comparator.comparing(TaskResponse::createdAt).thenComparing(TaskResponse::id).reversed();
+
     private final TaskRepository taskRepository;
     private final UserRepository userRepository;
+    private final TaskCounterRepository taskCounterRepository;
+    private final ArchivedTaskRepository archivedTaskRepository;
+    private final TaskCache taskCache;
+    private final TaskEventPublisher eventPublisher;
+    private final Validator validator;
 
-    public TaskService(TaskRepository taskRepository, UserRepository userRepository) {
+    public TaskService(
+            TaskRepository taskRepository,
+            UserRepository userRepository,
+            TaskCounterRepository taskCounterRepository,
+            ArchivedTaskRepository archivedTaskRepository,
+            TaskCache taskCache,
+            TaskEventPublisher eventPublisher,
+            Validator validator
+    ) {
         this.taskRepository = taskRepository;
         this.userRepository = userRepository;
+        this.taskCounterRepository = taskCounterRepository;
+        this.archivedTaskRepository = archivedTaskRepository;
+        this.taskCache = taskCache;
+        this.eventPublisher = eventPublisher;
+        this.validator = validator;
     }
 
     @Transactional(readOnly = true)
@@ -30,45 +75,134 @@ public class TaskService {
             boolean isAdmin,
             Pageable pageable
     ) {
-        Page<Task> page;
+        // USER: ignore requestedUserId
+        Long userId = isAdmin ? requestedUserId : currentUserId;
 
-        if (isAdmin) {
-            if (requestedUserId == null) {
-                page = (completed == null)
-                        ? taskRepository.findAll(pageable)
-                        : taskRepository.findByCompleted(completed, pageable);
+        List<TaskResponse> content;
+        if (userId == null) {
+            content = (completed == null)
+                    ? taskRepository.findAllResponses(pageable)
+                    : taskRepository.findResponsesByCompleted(completed, pageable);
+        } else {
+            content = (completed == null)
+                    ? taskRepository.findResponsesByUserId(userId, pageable)
+                    : taskRepository.findResponsesByUserIdAndCompleted(userId, completed, pageable);
+        }
+
+        // The total is only looked up when it cannot be derived from the page itself
+        return PageableExecutionUtils.getPage(content, pageable, () -> countTasks(userId, completed));
+    }
+
+    @Transactional(readOnly = true)
+    public TaskSummaryResponse summary(Long requestedUserId, Long currentUserId, boolean isAdmin) {
+        // USER: ignore requestedUserId
+        return summaryFor(isAdmin ? requestedUserId : currentUserId);
+    }
+
+    // Both inputs are sorted by (createdAt DESC, id DESC); keeps that order and at most max rows
+    private static List<TaskResponse> mergeNewestFirst(List<TaskResponse> a, List<TaskResponse> b, int max) {
+        List<TaskResponse> merged = new ArrayList<>(Math.min(max, a.size() + b.size()));
+        int i = 0, j = 0;
+        while (merged.size() < max && (i < a.size() || j < b.size())) {
+            if (j >= b.size() || (i < a.size() && NEWEST_FIRST.compare(a.get(i), b.get(j)) <= 0)) {
+                merged.add(a.get(i++));
             } else {
-                page = (completed == null)
-                        ? taskRepository.findByUserId(requestedUserId, pageable)
-                        : taskRepository.findByUserIdAndCompleted(requestedUserId, completed, pageable);
+                merged.add(b.get(j++));
             }
-        } else {
-            // USER: ignore requestedUserId
-            page = (completed == null)
-                    ? taskRepository.findByUserId(currentUserId, pageable)
-                    : taskRepository.findByUserIdAndCompleted(currentUserId, completed, pageable);
         }
+        return merged;
+    }
+
+    // Reads the trigger-maintained counters: one row per user, or a sum over users when userId is null.
+    // Archived tasks are included, as they are in includeArchived listings.
+    private TaskSummaryResponse summaryFor(Long userId) {
+        if (userId == null) {
+            TaskCounterRepository.Totals totals = taskCounterRepository.sumAll();
+            return TaskSummaryResponse.of(null, totals.getTotal(), totals.getCompleted());
+        }
+        return taskCounterRepository.findById(userId)
+                .map(counter -> TaskSummaryResponse.of(userId, counter.getTotal(), counter.getCompleted()))
+                .orElseGet(() -> TaskSummaryResponse.of(userId, 0, 0));
+    }
 
-        return page.map(this::toResponse);
+    // Page totals cover live tasks only: archived tasks, all completed, are taken out
+    private long countTasks(Long userId, Boolean completed) {
+        long total, done, archived;
+        if (userId == null) {
+            TaskCounterRepository.Totals totals = taskCounterRepository.sumAll();
+            total = totals.getTotal();
+            done = totals.getCompleted();
+            archived = totals.getArchived();
+        } else {
+            TaskCounter counter = taskCounterRepository.findById(userId).orElse(null);
+            if (counter == null) return 0;
+            total = counter.getTotal();
+            done = counter.getCompleted();
+            archived = counter.getArchived();
+        }
+        if (completed == null) return total - archived;
+        return completed ? done - archived : total - done;
     }
 
     @Transactional(readOnly = true)
+    public CursorPage<TaskResponse> findAllAfter(
+            Long requestedUserId,
+            Boolean completed,
+            Long currentUserId,
+            boolean isAdmin,
+            String after,
+            int size,
+            boolean includeArchived
+    ) {
+        if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_CURSOR_PAGE_SIZE);
+        }
+
+        TaskCursor cursor = TaskCursor.decode(after);
+        // USER: ignore requestedUserId
+        Long userId = isAdmin ? requestedUserId : currentUserId;
+        // One extra row tells us whether there is a next slice without a COUNT
+        Limit limit = Limit.of(size + 1);
+
+        List<TaskResponse> rows;
+        if (userId == null) {
+            rows = (completed == null)
+                    ? taskRepository.findSliceAfter(cursor.createdAt(), cursor.id(), limit)
+                    : taskRepository.findSliceByCompletedAfter(completed, cursor.createdAt(), cursor.id(), limit);
+        } else {
+            rows = (completed == null)
+                    ? taskRepository.findSliceByUserIdAfter(userId, cursor.createdAt(), cursor.id(), limit)
+                    : taskRepository.findSliceByUserIdAndCompletedAfter(userId, completed, cursor.createdAt(), cursor.id(), limit);
+        }
+
+        // Only completed tasks are ever archived
+        if (includeArchived && !Boolean.FALSE.equals(completed)) {
+            List<TaskResponse> archived = (userId == null)
+                    ? archivedTaskRepository.findSliceAfter(cursor.createdAt(), cursor.id(), limit)
+                    : archivedTaskRepository.findSliceByUserIdAfter(userId, cursor.createdAt(), cursor.id(), limit);
+            rows = mergeNewestFirst(rows, archived, size + 1);
+        }
+
+        boolean hasNext = rows.size() > size;
+        List<TaskResponse> slice = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? TaskCursor.of(slice.get(size - 1)).encode() : null;
+
+        return new CursorPage<>(slice, slice.size(), nextCursor);
+    }
+
+    // Not read-only: a miss fills the cache, so it must read the primary. A replica behind by up to
+    // db.replicas.max-lag could re-cache the row a writer just evicted, with its old version (ETag).
+    // The connection is lazy, so a cache hit still borrows none.
+    @Transactional
     public Optional<TaskResponse> findById(Long taskId, Long currentUserId, boolean isAdmin) {
 
-        return taskRepository.findById(taskId)
-                .filter(task -> isAdmin || task.getUser().getId().equals(currentUserId))
-                .map(this::toResponse);
+        return taskCache.get(taskId, taskRepository::findResponseById)
+                .filter(task -> isAdmin || task.userId().equals(currentUserId));
     }
 
     @Transactional
     public TaskResponse create(TaskCreateRequest req, Long currentUserId, boolean isAdmin) {
-        Long targetUserId;
-
-        if (isAdmin) {
-            targetUserId = (req.userId() != null) ? req.userId() : currentUserId;
-        } else {
-            targetUserId = currentUserId; // USER: siempre él mismo
-        }
+        Long targetUserId = resolveTargetUserId(req, currentUserId, isAdmin);
 
         User user = userRepository.findById(targetUserId)
                 .orElseThrow(() -> new IllegalArgumentException("User not found: " + targetUserId));
@@ -78,49 +212,220 @@ public class TaskService {
         task.setCompleted(false);
         task.setUser(user);
 
-        return toResponse(taskRepository.save(task));
+        TaskResponse created = toResponse(taskRepository.save(task));
+        taskCache.putAfterCommit(created);
+        eventPublisher.publish(TaskEvent.Type.CREATED, created.userId(), created.id());
+        return created;
+    }
+
+    /**
+     * Creates many tasks in one transaction: owners are loaded once per distinct user id and rows are
+     * inserted in JDBC batches (ids come from the pooled sequence). Invalid items are rejected individually;
+     * results are returned in request order.
+     */
+    @Transactional
+    public List<TaskBatchItemResult> createAll(List<TaskCreateRequest> requests, Long currentUserId, boolean isAdmin) {
+        if (requests == null || requests.isEmpty() || requests.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("batch must contain between 1 and " + MAX_BATCH_SIZE + " tasks");
+        }
+
+        TaskBatchItemResult[] results = new TaskBatchItemResult[requests.size()];
+        Long[] targetUserIds = new Long[requests.size()];
+        Set<Long> ownerIds = new HashSet<>();
+
+        for (int i = 0; i < requests.size(); i++) {
+            TaskCreateRequest req = requests.get(i);
+            if (req == null) {
+                results[i] = TaskBatchItemResult.rejected(i, "Task must not be null");
+                continue;
+            }
+
+            Set<ConstraintViolation<TaskCreateRequest>> violations = validator.validate(req);
+            if (!violations.isEmpty()) {
+                results[i] = TaskBatchItemResult.rejected(i, violations.iterator().next().getMessage());
+                continue;
+            }
+
+            targetUserIds[i] = resolveTargetUserId(req, currentUserId, isAdmin);
+            ownerIds.add(targetUserIds[i]);
+        }
+
+        Map<Long, User> owners = new HashMap<>();
+        userRepository.findAllById(ownerIds).forEach(user -> owners.put(user.getId(), user));
+
+        List<Task> tasks = new ArrayList<>(requests.size());
+        List<Integer> positions = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            if (results[i] != null) continue;
+
+            User owner = owners.get(targetUserIds[i]);
+            if (owner == null) {
+                results[i] = TaskBatchItemResult.rejected(i, "User not found: " + targetUserIds[i]);
+                continue;
+            }
+            tasks.add(new Task(requests.get(i).title(), false, owner));
+            positions.add(i);
+        }
+
+        List<Task> saved = taskRepository.saveAll(tasks);
+        Map<Long, List<Long>> createdByOwner = new HashMap<>();
+        for (int k = 0; k < saved.size(); k++) {
+            int index = positions.get(k);
+            TaskResponse created = toResponse(saved.get(k));
+            results[index] = TaskBatchItemResult.created(index, created);
+            createdByOwner.computeIfAbsent(created.userId(), owner -> new ArrayList<>()).add(created.id());
+        }
+        createdByOwner.forEach((owner, ids) -> eventPublisher.publish(TaskEvent.Type.CREATED, owner, ids));
+
+        return Arrays.asList(results);
     }
 
-    private TaskResponse toResponse(Task task) {
+    private Long resolveTargetUserId(TaskCreateRequest req, Long currentUserId, boolean isAdmin) {
+        if (isAdmin) {
+            return (req.userId() != null) ? req.userId() : currentUserId;
+        }
+        return currentUserId; // USER: siempre él mismo
+    }
+
+    static TaskResponse toResponse(Task task) {
         return new TaskResponse(
                 task.getId(),
                 task.getTitle(),
                 task.isCompleted(),
                 task.getUser().getId(),
-                task.getCreatedAt()
+                task.getCreatedAt(),
+                task.getVersion()
         );
     }
 
     @Transactional
     public boolean deleteById(Long taskId, Long currentUserId, boolean isAdmin) {
+        if (!isAdmin && isCachedForAnotherOwner(taskId, currentUserId)) return false;
 
-        return taskRepository.findById(taskId)
-                .filter(task -> isAdmin || task.getUser().getId().equals(currentUserId))
-                .map(task -> {
-                    taskRepository.delete(task);
-                    return true;
-                })
-                .orElse(false);
+        // Subscribers are scoped by owner; only an admin can delete someone else's task
+        Long ownerId = isAdmin
+                ? taskCache.peek(taskId).map(TaskResponse::userId).or(() -> taskRepository.findUserIdById(taskId)).orElse(null)
+                : currentUserId;
+
+        boolean deleted = taskRepository.deleteOwned(taskId, currentUserId, isAdmin) > 0;
+        if (deleted) {
+            taskCache.evict(taskId);
+            eventPublisher.publish(TaskEvent.Type.DELETED, ownerId, taskId);
+        }
+        return deleted;
+    }
+
+    /**
+     * Bulk cleanup by filter. Runs as a sequence of bounded chunks, each committed on its own,
+     * so a large cleanup never holds row locks for long. Not transactional on purpose.
+     * An admin without userId must pass allUsers, so a forgotten parameter cannot wipe every user's tasks.
+     */
+    public long deleteAll(Long requestedUserId, boolean completed, boolean allUsers, Long currentUserId, boolean isAdmin) {
+        // USER: ignore requestedUserId
+        Long userId = isAdmin ? requestedUserId : currentUserId;
+        if (userId == null && !allUsers) {
+            throw new IllegalArgumentException("userId is required, or allUsers=true to delete across all users");
+        }
+
+        long total = 0;
+        int deleted;
+        do {
+            deleted = taskRepository.deleteChunk(userId, completed, DELETE_CHUNK_SIZE);
+            total += deleted;
+        } while (deleted == DELETE_CHUNK_SIZE);
+
+        if (total > 0) {
+            taskCache.evictAll();
+            eventPublisher.publishUnlisted(TaskEvent.Type.DELETED, userId);
+        }
+        return total;
     }
 
     @Transactional
-    public Optional<TaskResponse> updateById(Long taskId, TaskUpdateRequest req, Long currentUserId, boolean isAdmin) {
-        return taskRepository.findById(taskId)
-                .filter(task -> isAdmin || task.getUser().getId().equals(currentUserId))
+    public Optional<TaskResponse> updateById(
+            Long taskId,
+            TaskUpdateRequest req,
+            Long currentUserId,
+            boolean isAdmin,
+            Long expectedVersion
+    ) {
+        if (!isAdmin && isCachedForAnotherOwner(taskId, currentUserId)) return Optional.empty();
+
+        // Read and write by (id, created_at), so both statements touch a single partition
+        return taskRepository.findResponseById(taskId)
+                .filter(task -> isAdmin || task.userId().equals(currentUserId))
                 .map(task -> {
-                    if (req.title() != null) {
-                        if (req.title().isBlank()) {
-                            throw new IllegalArgumentException("title must not be blank");
-                        } else {
-                            task.setTitle(req.title());
-                        }
+                    if (expectedVersion != null && expectedVersion != task.version()) {
+                        throw new PreconditionFailedException("Task " + taskId + " has been modified (current version " + task.version() + ")");
                     }
-                    if (req.completed() != null) {
-                        task.setCompleted(req.completed());
+                    if (req.title() != null && req.title().isBlank()) {
+                        throw new IllegalArgumentException("title must not be blank");
+                    }
+                    String title = req.title() != null ? req.title() : task.title();
+                    boolean completed = req.completed() != null ? req.completed() : task.completed();
+                    // Nothing to change: keep the version (and ETag), like a clean entity would
+                    if (title.equals(task.title()) && completed == task.completed()) {
+                        return task;
+                    }
+
+                    if (taskRepository.updateVersioned(taskId, task.createdAt(), task.version(), title, completed) == 0) {
+                        throw new PreconditionFailedException("Task " + taskId + " has been modified concurrently");
                     }
-                    Task saved = taskRepository.save(task);
-                    return toResponse(saved);
+                    TaskResponse saved = new TaskResponse(taskId, title, completed, task.userId(), task.createdAt(), task.version() + 1);
+                    taskCache.evict(taskId);
+                    eventPublisher.publish(TaskEvent.Type.UPDATED, saved.userId(), taskId);
+                    return saved;
                 });
     }
 
+    /**
+     * Applies the same partial update to many tasks with a single UPDATE statement.
+     * Ownership rules match updateById: a USER only ever touches their own tasks.
+     */
+    @Transactional
+    public long updateAll(TaskBulkUpdateRequest req, Long currentUserId, boolean isAdmin) {
+        TaskUpdateRequest set = req.set();
+        if (set == null || (set.completed() == null && set.title() == null)) {
+            throw new IllegalArgumentException("set must contain at least one field");
+        }
+        if (set.title() != null && set.title().isBlank()) {
+            throw new IllegalArgumentException("title must not be blank");
+        }
+
+        boolean byIds = req.ids() != null && !req.ids().isEmpty();
+        if (byIds && (req.userId() != null || req.completed() != null)) {
+            throw new IllegalArgumentException("Use either ids or a filter (userId, completed), not both");
+        }
+
+        int affected;
+        if (byIds) {
+            Long ownerId = isAdmin ? null : currentUserId;
+            affected = taskRepository.updateByIds(req.ids(), ownerId, set.completed(), set.title());
+            taskCache.evict(req.ids());
+            if (affected > 0) {
+                eventPublisher.publish(TaskEvent.Type.UPDATED, ownerId, req.ids());
+            }
+        } else {
+            // USER: ignore requestedUserId
+            Long userId = isAdmin ? req.userId() : currentUserId;
+            if (userId == null && req.completed() == null) {
+                throw new IllegalArgumentException("ids or a filter (userId, completed) is required");
+            }
+            affected = taskRepository.updateByFilter(userId, req.completed(), set.completed(), set.title());
+            taskCache.evictAll();
+            if (affected > 0) {
+                eventPublisher.publishUnlisted(TaskEvent.Type.UPDATED, userId);
+            }
+        }
+
+        return affected;
+    }
+
+    // Owner never changes, so a cached snapshot is enough to reject foreign tasks without a round trip
+    private boolean isCachedForAnotherOwner(Long taskId, Long currentUserId) {
+        return taskCache.peek(taskId)
+                .map(cached -> !cached.userId().equals(currentUserId))
+                .orElse(false);
+    }
+
 }
@@ -0,0 +1,161 @@
+package io.viktor.backend.tasks;
+
+import io.viktor.backend.tasks.dto.TaskEvent;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * In-memory SSE subscribers of this instance. Events arrive from TaskEventListener and are
+ * delivered to the subscribers allowed to see them: admins see everything, a USER only their own tasks.
+ * Each subscriber has a bounded queue drained on a virtual thread of its own, so a slow client never
+ * holds up the listener thread or the other subscribers. A subscriber whose queue overflows gets a
+ * resync event in place of its backlog and is then closed; the client reconnects and catches up via /changes.
+ */
+@Component
+public class TaskStreamRegistry {
+
+    private static final Supplier<SseEmitter.SseEventBuilder> PING = () -> SseEmitter.event().comment("ping");
+    private static final TaskEvent RESYNC = new TaskEvent(TaskEvent.Type.RESYNC, null, null);
+
+    private final Map<SseEmitter, Subscriber> subscribers = new ConcurrentHashMap<>();
+    private final ExecutorService senders =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("task-stream-", 0).factory());
+    private final long timeoutMillis;
+    private final int queueCapacity;
+
+    public TaskStreamRegistry(
+            @Value("${tasks.stream.timeout:30m}") Duration timeout,
+            @Value("${tasks.stream.queue-capacity:256}") int queueCapacity
+    ) {
+        this.timeoutMillis = timeout.toMillis();
+        this.queueCapacity = queueCapacity;
+    }
+
+    public SseEmitter subscribe(Long currentUserId, boolean isAdmin) {
+        // On timeout the client (EventSource) reconnects on its own
+        SseEmitter emitter = newEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, currentUserId, isAdmin);
+        subscribers.put(emitter, subscriber);
+
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(ex -> subscriber.close());
+        return emitter;
+    }
+
+    public int size() {
+        return subscribers.size();
+    }
+
+    /** Only queues: never blocks the calling (listener) thread. */
+    public void dispatch(TaskEvent event) {
+        subscribers.values().forEach(subscriber -> {
+            if (subscriber.isAdmin || event.userId() == null) {
+                // Cross-user events reach every USER as a plain "refetch" hint, never with foreign ids
+                subscriber.offer(subscriber.isAdmin ? event : event.withoutIds());
+            } else if (event.userId().equals(subscriber.userId)) {
+                subscriber.offer(event);
+            }
+        });
+    }
+
+    // Keeps proxies from closing idle streams and flushes out subscribers whose connection is gone
+    @Scheduled(fixedRateString = "${tasks.stream.heartbeat:PT25S}")
+    public void heartbeat() {
+        subscribers.values().forEach(subscriber -> subscriber.offer(PING));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        senders.shutdownNow();
+    }
+
+    protected SseEmitter newEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    private static Supplier<SseEmitter.SseEventBuilder> toSse(TaskEvent event) {
+        return () -> SseEmitter.event().name(event.type().name().toLowerCase()).data(event);
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final Long userId;
+        private final boolean isAdmin;
+        private final BlockingQueue<Supplier<SseEmitter.SseEventBuilder>> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        // Set once: nothing more is queued, the drainer sends what is left and completes the emitter
+        private volatile boolean closing;
+
+        Subscriber(SseEmitter emitter, Long userId, boolean isAdmin) {
+            this.emitter = emitter;
+            this.userId = userId;
+            this.isAdmin = isAdmin;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        }
+
+        void offer(TaskEvent event) {
+            offer(toSse(event));
+        }
+
+        void offer(Supplier<SseEmitter.SseEventBuilder> event) {
+            if (closing) return;
+            if (!queue.offer(event)) {
+                // Too far behind: the backlog is worth less than a resync, which the client can act on
+                subscribers.remove(emitter);
+                queue.clear();
+                queue.offer(toSse(RESYNC));
+                closing = true;
+            }
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        void close() {
+            closing = true;
+            subscribers.remove(emitter);
+            queue.clear();
+        }
+
+        private void drain() {
+            while (true) {
+                if (!sendQueued()) return;
+                if (closing) {
+                    // The resync was queued before closing was set, so this sends it
+                    if (sendQueued()) emitter.complete();
+                    return;
+                }
+                draining.set(false);
+                if (queue.isEmpty() || !draining.compareAndSet(false, true)) return;
+            }
+        }
+
+        private boolean sendQueued() {
+            Supplier<SseEmitter.SseEventBuilder> event;
+            while ((event = queue.poll()) != null) {
+                try {
+                    emitter.send(event.get());
+                } catch (IOException | IllegalStateException ex) {
+                    close();
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
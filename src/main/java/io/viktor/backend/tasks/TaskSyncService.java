@@ -0,0 +1,150 @@
+package io.viktor.backend.tasks;
+
+import io.viktor.backend.common.exception.GoneException;
+import io.viktor.backend.tasks.dto.TaskChangesResponse;
+import io.viktor.backend.tasks.dto.TaskResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Delta sync for clients that keep a local copy of a user's tasks: returns what was created, modified
+ * or deleted after a watermark, in (change_xid, id) order. Both sources are maintained by triggers (V7).
+ */
+@Service
+public class TaskSyncService {
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    // Purge lags expiry a little, so clock skew between app and database cannot drop a needed tombstone
+    private static final Duration PURGE_GRACE = Duration.ofDays(1);
+
+    private static final String SNAPSHOT_XMIN_SQL = "SELECT pg_snapshot_xmin(pg_current_snapshot())::text";
+
+    // Each branch walks its (user_id, change_xid, id) index and stops early; the outer query merges them
+    private static final String CHANGES_SQL = """
+            SELECT * FROM (
+                (SELECT change_xid, id, false AS deleted, title, completed, user_id, created_at, version
+                   FROM tasks
+                  WHERE user_id = ? AND (change_xid, id) > (?::xid8, ?)
+                  ORDER BY change_xid, id
+                  LIMIT ?)
+                UNION ALL
+                (SELECT change_xid, task_id, true, NULL, NULL, user_id, NULL, NULL
+                   FROM task_tombstones
+                  WHERE user_id = ? AND (change_xid, task_id) > (?::xid8, ?)
+                  ORDER BY change_xid, task_id
+                  LIMIT ?)
+            ) changes
+            ORDER BY change_xid, id
+            LIMIT ?
+            """;
+
+    private record Change(long xid, long id, boolean deleted, TaskResponse task) {}
+
+    private static final RowMapper<Change> CHANGE_MAPPER = (rs, rowNum) -> {
+        boolean deleted = rs.getBoolean("deleted");
+        return new Change(
+                Long.parseLong(rs.getString("change_xid")),
+                rs.getLong("id"),
+                deleted,
+                deleted ? null : TaskRowMapper.INSTANCE.mapRow(rs, rowNum)
+        );
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate primaryTx;
+    private final Duration tombstoneRetention;
+
+    public TaskSyncService(
+            DataSource dataSource,
+            PlatformTransactionManager transactionManager,
+            @Value("${tasks.sync.tombstone-retention:30d}") Duration tombstoneRetention
+    ) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        // Not read-only on purpose: replicas replay at different speeds, so paging across them could
+        // skip a commit below the pending xmin. Watermarks must all come from the primary.
+        this.primaryTx = new TransactionTemplate(transactionManager);
+        this.tombstoneRetention = tombstoneRetention;
+    }
+
+    /**
+     * Changes for one user after the given watermark (omit it for an initial full sync).
+     * A USER always syncs their own tasks; an ADMIN may pass userId. The returned watermark
+     * is used for the next call; while hasMore is true, call again straight away.
+     */
+    public TaskChangesResponse changesSince(String since, Long requestedUserId, Long currentUserId, boolean isAdmin, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        // USER: ignore requestedUserId
+        Long userId = (isAdmin && requestedUserId != null) ? requestedUserId : currentUserId;
+        Instant now = Instant.now();
+
+        SyncWatermark from = (since == null || since.isBlank()) ? SyncWatermark.initial(now) : SyncWatermark.decode(since);
+        if (from.issuedAt().isBefore(now.minus(tombstoneRetention))) {
+            throw new GoneException("Watermark expired, deletions are no longer tracked that far back: sync again without 'since'");
+        }
+
+        return primaryTx.execute(status -> {
+            // Taken before reading, so everything below xmin is already visible to the query that follows
+            long xmin;
+            Instant takenAt;
+            if (from.pendingXmin() != null) {
+                xmin = from.pendingXmin();
+                takenAt = from.pendingAt();
+            } else {
+                xmin = Long.parseLong(jdbcTemplate.queryForObject(SNAPSHOT_XMIN_SQL, String.class));
+                takenAt = now;
+            }
+
+            String afterXid = Long.toString(from.afterXid());
+            List<Change> rows = jdbcTemplate.query(CHANGES_SQL, CHANGE_MAPPER,
+                    userId, afterXid, from.afterId(), size + 1,
+                    userId, afterXid, from.afterId(), size + 1,
+                    size + 1);
+
+            boolean hasMore = rows.size() > size;
+            List<Change> page = hasMore ? rows.subList(0, size) : rows;
+
+            // An initial sync may also list old deletions; clients ignore ids they never had
+            List<TaskResponse> changed = new ArrayList<>(page.size());
+            List<Long> deleted = new ArrayList<>();
+            for (Change change : page) {
+                if (change.deleted()) {
+                    deleted.add(change.id());
+                } else {
+                    changed.add(change.task());
+                }
+            }
+
+            SyncWatermark next;
+            if (hasMore) {
+                Change last = page.get(page.size() - 1);
+                next = from.continueAfter(last.xid(), last.id(), xmin, takenAt);
+            } else {
+                next = SyncWatermark.fromSnapshot(xmin, takenAt);
+            }
+            return new TaskChangesResponse(changed, deleted, next.encode(), hasMore);
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${tasks.sync.purge-interval:PT1H}", initialDelayString = "${tasks.sync.purge-interval:PT1H}")
+    public void purgeTombstones() {
+        Instant cutoff = Instant.now().minus(tombstoneRetention).minus(PURGE_GRACE);
+        jdbcTemplate.update("DELETE FROM task_tombstones WHERE deleted_at < ?", LocalDateTime.ofInstant(cutoff, ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,17 @@
+package io.viktor.backend.tasks.dto;
+
+public record TaskBatchItemResult(
+        int index,
+        boolean created,
+        TaskResponse task,
+        String error
+) {
+
+    public static TaskBatchItemResult created(int index, TaskResponse task) {
+        return new TaskBatchItemResult(index, true, task, null);
+    }
+
+    public static TaskBatchItemResult rejected(int index, String error) {
+        return new TaskBatchItemResult(index, false, null, error);
+    }
+}
@@ -0,0 +1,5 @@
+package io.viktor.backend.tasks.dto;
+
+public record TaskBulkResponse(
+        long affected
+) {}
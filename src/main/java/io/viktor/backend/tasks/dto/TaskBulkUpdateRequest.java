@@ -0,0 +1,17 @@
+package io.viktor.backend.tasks.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Targets either an explicit id list or a filter (userId, completed); "set" holds the fields to write.
+ */
+public record TaskBulkUpdateRequest(
+        @Size(max = 1000) List<@NotNull Long> ids,
+        Long userId,
+        Boolean completed,
+        @NotNull @Valid TaskUpdateRequest set
+) {}
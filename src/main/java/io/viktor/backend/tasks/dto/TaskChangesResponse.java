@@ -0,0 +1,10 @@
+package io.viktor.backend.tasks.dto;
+
+import java.util.List;
+
+public record TaskChangesResponse(
+        List<TaskResponse> changed,
+        List<Long> deleted,
+        String watermark,
+        boolean hasMore
+) {}
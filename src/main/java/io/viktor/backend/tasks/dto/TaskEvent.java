@@ -0,0 +1,20 @@
+package io.viktor.backend.tasks.dto;
+
+import java.util.List;
+
+/**
+ * Change notification pushed to stream subscribers. userId is null when the change may span users;
+ * taskIds is null when the affected rows are not enumerated (bulk by filter): clients should refetch.
+ */
+public record TaskEvent(
+        Type type,
+        Long userId,
+        List<Long> taskIds
+) {
+
+    public enum Type { CREATED, UPDATED, DELETED, RESYNC }
+
+    public TaskEvent withoutIds() {
+        return new TaskEvent(type, userId, null);
+    }
+}
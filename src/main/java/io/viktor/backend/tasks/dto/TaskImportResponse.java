@@ -0,0 +1,9 @@
+package io.viktor.backend.tasks.dto;
+
+import java.util.List;
+
+public record TaskImportResponse(
+        long accepted,
+        long rejected,
+        List<String> errors
+) {}
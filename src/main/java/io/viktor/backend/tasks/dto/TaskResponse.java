@@ -7,6 +7,7 @@ public record TaskResponse(
         String title,
         boolean completed,
         Long userId,
-        Instant createdAt
+        Instant createdAt,
+        long version
 ) {
 }
@@ -0,0 +1,13 @@
+package io.viktor.backend.tasks.dto;
+
+public record TaskSummaryResponse(
+        Long userId,
+        long total,
+        long completed,
+        long pending
+) {
+
+    public static TaskSummaryResponse of(Long userId, long total, long completed) {
+        return new TaskSummaryResponse(userId, total, completed, total - completed);
+    }
+}
@@ -24,6 +24,10 @@ public class User {
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
 
+    // Maintained by the database (V9): starts at 0, bumped on role changes
+    @Column(name = "token_version", nullable = false, insertable = false, updatable = false)
+    private long tokenVersion;
+
     @PrePersist
     void onCreate() {
         if (createdAt == null) createdAt = Instant.now();
@@ -51,4 +55,6 @@ public class User {
     public void setRole(Role role) { this.role = role; }
 
     public Instant getCreatedAt() { return createdAt; }
+
+    public long getTokenVersion() { return tokenVersion; }
 }
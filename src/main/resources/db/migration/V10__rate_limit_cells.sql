@@ -0,0 +1,38 @@
+-- Shared rate-limit state for rate-limit.store=postgres: one GCRA cell per key, the key's theoretical
+-- arrival time (TAT) in microseconds on the database clock, so instance clocks do not matter.
+-- UNLOGGED: no WAL for a hot, disposable table; after a crash limits simply start over.
+CREATE UNLOGGED TABLE rate_limit_cells (
+    key TEXT PRIMARY KEY,
+    tat BIGINT NOT NULL
+);
+
+-- Takes up to p_max tokens from a bucket of p_window / p_interval tokens, in one round trip.
+-- Returns how many were granted, how many are still free after that and, when none could be granted,
+-- how long until the next one (all durations in microseconds).
+CREATE FUNCTION rate_limit_acquire(p_key TEXT, p_interval BIGINT, p_window BIGINT, p_max INT)
+    RETURNS TABLE (granted INT, available INT, wait_us BIGINT) LANGUAGE plpgsql AS $$
+DECLARE
+    v_now BIGINT := (extract(epoch FROM clock_timestamp()) * 1000000)::bigint;
+    v_base BIGINT;
+    v_free INT;
+    v_granted INT;
+BEGIN
+    INSERT INTO rate_limit_cells (key, tat) VALUES (p_key, v_now)
+    ON CONFLICT (key) DO NOTHING;
+
+    SELECT greatest(c.tat, v_now) INTO v_base
+      FROM rate_limit_cells c
+     WHERE c.key = p_key
+       FOR UPDATE;
+
+    v_free := ((p_window - (v_base - v_now)) / p_interval)::int;
+    IF v_free <= 0 THEN
+        RETURN QUERY SELECT 0, 0, v_base + p_interval - v_now - p_window;
+        RETURN;
+    END IF;
+
+    v_granted := least(p_max, v_free);
+    UPDATE rate_limit_cells SET tat = v_base + v_granted * p_interval WHERE key = p_key;
+    RETURN QUERY SELECT v_granted, v_free - v_granted, 0::bigint;
+END;
+$$;
@@ -0,0 +1,44 @@
+-- tasks is partitioned by created_at and keyed by (id, created_at) (V8): a statement that only knows
+-- the id has to probe the primary key index of every monthly partition, so point reads get slower
+-- every month. task_locator maps id -> created_at in one unpartitioned table; id-based statements add
+-- created_at = (SELECT created_at FROM task_locator ...), and Postgres prunes at execution time down
+-- to the one partition holding the row.
+CREATE TABLE task_locator (
+    id BIGINT PRIMARY KEY ,
+    created_at TIMESTAMP NOT NULL
+);
+
+INSERT INTO task_locator (id, created_at)
+SELECT id, created_at
+  FROM tasks;
+
+-- Maintained like task_counters (V5): statement-level triggers, so COPY imports and chunked deletes
+-- pay one statement per batch. created_at is never updated, so there is no UPDATE trigger.
+
+CREATE FUNCTION task_locator_after_insert() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    INSERT INTO task_locator (id, created_at)
+    SELECT id, created_at
+      FROM new_rows;
+    RETURN NULL;
+END;
+$$;
+
+CREATE FUNCTION task_locator_after_delete() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    DELETE FROM task_locator l
+     USING old_rows o
+     WHERE l.id = o.id;
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER tasks_locator_insert
+    AFTER INSERT ON tasks
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION task_locator_after_insert();
+
+CREATE TRIGGER tasks_locator_delete
+    AFTER DELETE ON tasks
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION task_locator_after_delete();
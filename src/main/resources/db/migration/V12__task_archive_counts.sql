@@ -0,0 +1,58 @@
+-- Archiving (TaskPartitionMaintenance) moves completed tasks from tasks to tasks_archive with a DELETE.
+-- Until now that DELETE fired the counter and tombstone triggers like a user delete: /summary dropped
+-- archived tasks and sync clients were told they were deleted, while includeArchived=true still listed
+-- them. The archive transaction now sets tasks.archiving = 'on' (transaction-local), and the triggers
+-- treat its deletes as a move: no tombstones, and counters keep the tasks, tracked in archived so that
+-- page totals over live tasks can leave them out. The task_locator trigger (V11) still fires.
+ALTER TABLE task_counters
+    ADD COLUMN archived BIGINT NOT NULL DEFAULT 0;
+
+-- Tasks archived before this migration were subtracted when they were moved: add them back
+INSERT INTO task_counters AS c (user_id, total, completed, archived)
+SELECT a.user_id, count(*), count(*), count(*)
+  FROM tasks_archive a
+  JOIN users u ON u.id = a.user_id
+ GROUP BY a.user_id
+ON CONFLICT (user_id) DO UPDATE
+   SET total = c.total + EXCLUDED.total,
+       completed = c.completed + EXCLUDED.completed,
+       archived = EXCLUDED.archived;
+
+-- Only completed tasks are archived, so an archive move only shifts rows into archived
+CREATE OR REPLACE FUNCTION task_counters_after_delete() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    IF current_setting('tasks.archiving', true) = 'on' THEN
+        UPDATE task_counters c
+           SET archived = c.archived + d.archived
+          FROM (SELECT user_id, count(*) AS archived
+                  FROM old_rows
+                 GROUP BY user_id
+                 ORDER BY user_id) d
+         WHERE c.user_id = d.user_id;
+        RETURN NULL;
+    END IF;
+
+    UPDATE task_counters c
+       SET total = c.total - d.total,
+           completed = c.completed - d.completed
+      FROM (SELECT user_id, count(*) AS total, count(*) FILTER (WHERE completed) AS completed
+              FROM old_rows
+             GROUP BY user_id
+             ORDER BY user_id) d
+     WHERE c.user_id = d.user_id;
+    RETURN NULL;
+END;
+$$;
+
+CREATE OR REPLACE FUNCTION task_tombstones_after_delete() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    IF current_setting('tasks.archiving', true) = 'on' THEN
+        RETURN NULL;
+    END IF;
+
+    INSERT INTO task_tombstones (task_id, user_id)
+    SELECT id, user_id FROM old_rows
+    ON CONFLICT (task_id) DO NOTHING;
+    RETURN NULL;
+END;
+$$;
@@ -0,0 +1,4 @@
+-- Support keyset pagination on (created_at DESC, id DESC) for every filter combination
+CREATE INDEX idx_tasks_created_at_id ON tasks (created_at DESC, id DESC);
+CREATE INDEX idx_tasks_user_created_at_id ON tasks (user_id, created_at DESC, id DESC);
+CREATE INDEX idx_tasks_completed_created_at_id ON tasks (completed, created_at DESC, id DESC);
@@ -0,0 +1,2 @@
+-- Optimistic locking / ETag source for tasks
+ALTER TABLE tasks ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
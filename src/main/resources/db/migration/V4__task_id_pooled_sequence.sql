@@ -0,0 +1,4 @@
+-- Hand out task ids in blocks of 50 (Task uses a pooled-lo sequence generator with allocationSize = 50),
+-- so Hibernate can assign ids without a round trip per row and batch the inserts.
+-- Plain nextval() defaults keep working: pooled-lo treats each value as the low end of its own block.
+ALTER SEQUENCE tasks_id_seq INCREMENT BY 50;
@@ -0,0 +1,80 @@
+-- Per-user task totals, so list totals and the summary endpoint never COUNT(*) over tasks.
+-- Maintained by statement-level triggers with transition tables: every write path (JPA, bulk JPQL,
+-- chunked native deletes, COPY imports) updates the counters in the same transaction, once per statement.
+CREATE TABLE task_counters (
+    user_id BIGINT PRIMARY KEY ,
+    total BIGINT NOT NULL DEFAULT 0,
+    completed BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT fk_task_counters_user
+                   FOREIGN KEY (user_id)
+                   REFERENCES users(id)
+                   ON DELETE CASCADE
+);
+
+INSERT INTO task_counters (user_id, total, completed)
+SELECT user_id, count(*), count(*) FILTER (WHERE completed)
+  FROM tasks
+ GROUP BY user_id;
+
+-- Rows are touched in user_id order so concurrent statements lock counters in the same order
+
+CREATE FUNCTION task_counters_after_insert() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    INSERT INTO task_counters AS c (user_id, total, completed)
+    SELECT user_id, count(*), count(*) FILTER (WHERE completed)
+      FROM new_rows
+     GROUP BY user_id
+     ORDER BY user_id
+    ON CONFLICT (user_id) DO UPDATE
+       SET total = c.total + EXCLUDED.total,
+           completed = c.completed + EXCLUDED.completed;
+    RETURN NULL;
+END;
+$$;
+
+-- Plain UPDATEs: when a user is deleted the counter row is already gone and must not be recreated
+CREATE FUNCTION task_counters_after_delete() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    UPDATE task_counters c
+       SET total = c.total - d.total,
+           completed = c.completed - d.completed
+      FROM (SELECT user_id, count(*) AS total, count(*) FILTER (WHERE completed) AS completed
+              FROM old_rows
+             GROUP BY user_id
+             ORDER BY user_id) d
+     WHERE c.user_id = d.user_id;
+    RETURN NULL;
+END;
+$$;
+
+CREATE FUNCTION task_counters_after_update() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    UPDATE task_counters c
+       SET total = c.total + d.total,
+           completed = c.completed + d.completed
+      FROM (SELECT user_id, sum(total) AS total, sum(completed) AS completed
+              FROM (SELECT user_id, 1 AS total, completed::int AS completed FROM new_rows
+                    UNION ALL
+                    SELECT user_id, -1, -(completed::int) FROM old_rows) changes
+             GROUP BY user_id
+            HAVING sum(total) <> 0 OR sum(completed) <> 0
+             ORDER BY user_id) d
+     WHERE c.user_id = d.user_id;
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER tasks_counters_insert
+    AFTER INSERT ON tasks
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION task_counters_after_insert();
+
+CREATE TRIGGER tasks_counters_delete
+    AFTER DELETE ON tasks
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION task_counters_after_delete();
+
+CREATE TRIGGER tasks_counters_update
+    AFTER UPDATE ON tasks
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION task_counters_after_update();
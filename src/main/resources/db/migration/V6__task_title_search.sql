@@ -0,0 +1,6 @@
+-- Full-text search over titles. 'simple' (no stemming, no stop words) because titles are mixed-language.
+-- The column is generated by the database, so JPA inserts, bulk updates and COPY imports never set it.
+ALTER TABLE tasks
+    ADD COLUMN title_tsv tsvector GENERATED ALWAYS AS (to_tsvector('simple', title)) STORED;
+
+CREATE INDEX idx_tasks_title_tsv ON tasks USING GIN (title_tsv);
@@ -0,0 +1,48 @@
+-- Delta sync support.
+-- change_xid is the id of the transaction that last wrote the row. Clients sync from the xmin of an earlier
+-- snapshot (every transaction below it had finished), so rows committed late by long transactions
+-- (COPY imports, bulk updates) are never skipped the way a commit-order-blind updated_at watermark would.
+-- Timestamps are plain TIMESTAMPs holding UTC wall-clock time, like created_at.
+ALTER TABLE tasks
+    ADD COLUMN updated_at TIMESTAMP NOT NULL DEFAULT (now() AT TIME ZONE 'utc'),
+    ADD COLUMN change_xid xid8 NOT NULL DEFAULT pg_current_xact_id();
+
+CREATE INDEX idx_tasks_user_change_xid ON tasks (user_id, change_xid, id);
+
+CREATE FUNCTION tasks_touch() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    NEW.updated_at := now() AT TIME ZONE 'utc';
+    NEW.change_xid := pg_current_xact_id();
+    RETURN NEW;
+END;
+$$;
+
+CREATE TRIGGER tasks_touch
+    BEFORE UPDATE ON tasks
+    FOR EACH ROW EXECUTE FUNCTION tasks_touch();
+
+-- One row per deleted task, written for every delete path (single, chunked, user cascade).
+-- No FK to users: tombstones must outlive the owner. Purged after the sync retention period.
+CREATE TABLE task_tombstones (
+    task_id BIGINT PRIMARY KEY ,
+    user_id BIGINT NOT NULL ,
+    deleted_at TIMESTAMP NOT NULL DEFAULT (now() AT TIME ZONE 'utc'),
+    change_xid xid8 NOT NULL DEFAULT pg_current_xact_id()
+);
+
+CREATE INDEX idx_task_tombstones_user_change_xid ON task_tombstones (user_id, change_xid, task_id);
+CREATE INDEX idx_task_tombstones_deleted_at ON task_tombstones (deleted_at);
+
+CREATE FUNCTION task_tombstones_after_delete() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    INSERT INTO task_tombstones (task_id, user_id)
+    SELECT id, user_id FROM old_rows
+    ON CONFLICT (task_id) DO NOTHING;
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER tasks_tombstones_delete
+    AFTER DELETE ON tasks
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION task_tombstones_after_delete();
@@ -0,0 +1,137 @@
+-- Range-partition tasks by month of created_at, plus a compressed archive for old completed tasks.
+--
+-- There is deliberately no DEFAULT partition: with non-overlapping ranges only, Postgres scans
+-- partitions in order for ORDER BY created_at DESC ... LIMIT and stops at the newest ones.
+-- Partitions are created ahead of time by the application (TaskPartitionMaintenance) and on demand
+-- by COPY imports, through ensure_monthly_partition().
+--
+-- The primary key must contain the partition key, so it becomes (id, created_at); ids still come
+-- from tasks_id_seq and stay unique.
+
+ALTER TABLE tasks RENAME TO tasks_legacy;
+ALTER TABLE tasks_legacy RENAME CONSTRAINT tasks_pkey TO tasks_legacy_pkey;
+
+CREATE TABLE tasks (
+    id BIGINT NOT NULL DEFAULT nextval('tasks_id_seq'),
+    title VARCHAR(255) NOT NULL ,
+    completed BOOLEAN NOT NULL DEFAULT FALSE,
+    user_id BIGINT NOT NULL ,
+    created_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    version BIGINT NOT NULL DEFAULT 0,
+    title_tsv tsvector GENERATED ALWAYS AS (to_tsvector('simple', title)) STORED,
+    updated_at TIMESTAMP NOT NULL DEFAULT (now() AT TIME ZONE 'utc'),
+    change_xid xid8 NOT NULL DEFAULT pg_current_xact_id(),
+    CONSTRAINT tasks_pkey PRIMARY KEY (id, created_at),
+    CONSTRAINT fk_tasks_user
+                   FOREIGN KEY (user_id)
+                   REFERENCES users(id)
+                   ON DELETE CASCADE
+) PARTITION BY RANGE (created_at);
+
+-- Archived tasks are append-only and read rarely: no search or sync columns, two indexes,
+-- lz4 TOAST compression with a low tuple target (a storage option, so it is set per partition).
+CREATE TABLE tasks_archive (
+    id BIGINT NOT NULL ,
+    title VARCHAR(255) COMPRESSION lz4 NOT NULL ,
+    completed BOOLEAN NOT NULL ,
+    user_id BIGINT NOT NULL ,
+    created_at TIMESTAMP NOT NULL ,
+    version BIGINT NOT NULL ,
+    updated_at TIMESTAMP NOT NULL ,
+    archived_at TIMESTAMP NOT NULL DEFAULT (now() AT TIME ZONE 'utc'),
+    CONSTRAINT tasks_archive_pkey PRIMARY KEY (created_at, id),
+    CONSTRAINT fk_tasks_archive_user
+                   FOREIGN KEY (user_id)
+                   REFERENCES users(id)
+                   ON DELETE CASCADE
+) PARTITION BY RANGE (created_at);
+
+-- Creates <parent>_YYYY_MM if missing. CREATE TABLE LIKE + ATTACH only takes SHARE UPDATE EXCLUSIVE
+-- on the parent, so it does not block concurrent reads and writes (unlike CREATE TABLE ... PARTITION OF).
+CREATE FUNCTION ensure_monthly_partition(parent regclass, month DATE, storage TEXT DEFAULT NULL)
+    RETURNS boolean LANGUAGE plpgsql AS $$
+DECLARE
+    partition_name TEXT := parent::text || '_' || to_char(month, 'YYYY_MM');
+    month_start DATE := date_trunc('month', month)::date;
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN false;
+    END IF;
+
+    -- Serializes creators across instances; re-check once the lock is ours
+    PERFORM pg_advisory_xact_lock(hashtext('ensure_monthly_partition'));
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN false;
+    END IF;
+
+    EXECUTE format('CREATE TABLE %I (LIKE %s INCLUDING DEFAULTS INCLUDING GENERATED INCLUDING CONSTRAINTS INCLUDING COMPRESSION)%s',
+                   partition_name, parent, CASE WHEN storage IS NULL THEN '' ELSE ' WITH (' || storage || ')' END);
+    EXECUTE format('ALTER TABLE %s ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                   parent, partition_name, month_start, (month_start + INTERVAL '1 month')::date);
+    RETURN true;
+END;
+$$;
+
+CREATE FUNCTION ensure_task_partitions(from_ts TIMESTAMP, to_ts TIMESTAMP, parent regclass DEFAULT 'tasks', storage TEXT DEFAULT NULL)
+    RETURNS integer LANGUAGE plpgsql AS $$
+DECLARE
+    month DATE := date_trunc('month', from_ts)::date;
+    created integer := 0;
+BEGIN
+    WHILE month <= to_ts LOOP
+        IF ensure_monthly_partition(parent, month, storage) THEN
+            created := created + 1;
+        END IF;
+        month := (month + INTERVAL '1 month')::date;
+    END LOOP;
+    RETURN created;
+END;
+$$;
+
+SELECT ensure_task_partitions(
+           coalesce(min(created_at), now() AT TIME ZONE 'utc'),
+           (now() AT TIME ZONE 'utc') + INTERVAL '3 months')
+  FROM tasks_legacy;
+
+INSERT INTO tasks (id, title, completed, user_id, created_at, version, updated_at, change_xid)
+SELECT id, title, completed, user_id, created_at, version, updated_at, change_xid
+  FROM tasks_legacy;
+
+-- Keep the id sequence alive: it is owned by the legacy column until now
+ALTER SEQUENCE tasks_id_seq OWNED BY tasks.id;
+DROP TABLE tasks_legacy;
+
+-- Indexes from V2, V6 and V7, now partitioned (one per partition); built after the copy
+CREATE INDEX idx_tasks_created_at_id ON tasks (created_at DESC, id DESC);
+CREATE INDEX idx_tasks_user_created_at_id ON tasks (user_id, created_at DESC, id DESC);
+CREATE INDEX idx_tasks_completed_created_at_id ON tasks (completed, created_at DESC, id DESC);
+CREATE INDEX idx_tasks_title_tsv ON tasks USING GIN (title_tsv);
+CREATE INDEX idx_tasks_user_change_xid ON tasks (user_id, change_xid, id);
+
+CREATE INDEX idx_tasks_archive_user_created_at_id ON tasks_archive (user_id, created_at DESC, id DESC);
+
+-- Triggers from V5 and V7, created after the copy so existing rows are not counted twice.
+-- Archiving deletes from tasks: counters then cover live tasks, and sync clients get tombstones.
+CREATE TRIGGER tasks_counters_insert
+    AFTER INSERT ON tasks
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION task_counters_after_insert();
+
+CREATE TRIGGER tasks_counters_delete
+    AFTER DELETE ON tasks
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION task_counters_after_delete();
+
+CREATE TRIGGER tasks_counters_update
+    AFTER UPDATE ON tasks
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION task_counters_after_update();
+
+CREATE TRIGGER tasks_touch
+    BEFORE UPDATE ON tasks
+    FOR EACH ROW EXECUTE FUNCTION tasks_touch();
+
+CREATE TRIGGER tasks_tombstones_delete
+    AFTER DELETE ON tasks
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION task_tombstones_after_delete();
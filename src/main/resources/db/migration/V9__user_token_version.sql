@@ -0,0 +1,17 @@
+-- Issued JWTs carry the user's token_version ("ver" claim). A token is accepted only while the claim
+-- still matches, so bumping the column revokes every token of that user; deleting the user does too.
+-- Role changes bump it here, so a demoted ADMIN cannot keep using an ADMIN token.
+ALTER TABLE users ADD COLUMN token_version BIGINT NOT NULL DEFAULT 0;
+
+CREATE FUNCTION users_bump_token_version() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    NEW.token_version := OLD.token_version + 1;
+    RETURN NEW;
+END;
+$$;
+
+CREATE TRIGGER users_role_changed
+    BEFORE UPDATE OF role ON users
+    FOR EACH ROW
+    WHEN (OLD.role IS DISTINCT FROM NEW.role)
+    EXECUTE FUNCTION users_bump_token_version();
@@ -3,19 +3,21 @@ package io.viktor.backend.integration;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.containers.PostgreSQLContainer;
-import org.testcontainers.junit.jupiter.Container;
-import org.testcontainers.junit.jupiter.Testcontainers;
 
-@Testcontainers
 public abstract class IntegrationTestBase {
 
-    @Container
+    // One container for every subclass, started once per JVM: the Spring context is cached across
+    // test classes, so a container per class would leave later classes pointing at a stopped database
     static final PostgreSQLContainer<?> postgres =
             new PostgreSQLContainer<>("postgres:16")
                     .withDatabaseName("secure_api")
                     .withUsername("postgres")
                     .withPassword("postgres");
 
+    static {
+        postgres.start();
+    }
+
     @DynamicPropertySource
     static void overrideProps(DynamicPropertyRegistry registry) {
         registry.add("spring.datasource.url", postgres::getJdbcUrl);
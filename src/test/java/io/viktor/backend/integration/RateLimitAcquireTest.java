@@ -0,0 +1,70 @@
+package io.viktor.backend.integration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * rate_limit_acquire (V10) under contention: the row lock on the cell must serialize callers, so
+ * concurrent grants for one key never add up to more than the bucket holds.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class RateLimitAcquireTest extends IntegrationTestBase {
+
+    private static final String ACQUIRE_SQL = "SELECT granted FROM rate_limit_acquire(?, ?, ?, ?)";
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void concurrentAcquires_neverGrantMoreThanTheLimit() throws Exception {
+
+        // Arrange: 50 tokens per hour, so no token is refilled while the test runs
+        int limit = 50;
+        long windowMicros = Duration.ofHours(1).toNanos() / 1_000;
+        long intervalMicros = windowMicros / limit;
+        String key = "test_" + System.nanoTime();
+
+        int threads = 16;
+        int callsPerThread = 20;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+
+        // Act: 320 calls asking for 1 to 4 tokens each, all released at once
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int maxTokens = 1 + t % 4;
+            results.add(pool.submit(() -> {
+                start.await();
+                int granted = 0;
+                for (int i = 0; i < callsPerThread; i++) {
+                    granted += jdbcTemplate.queryForObject(ACQUIRE_SQL, Integer.class, key, intervalMicros, windowMicros, maxTokens);
+                }
+                return granted;
+            }));
+        }
+        start.countDown();
+
+        int total = 0;
+        for (Future<Integer> result : results) {
+            total += result.get();
+        }
+        pool.shutdown();
+
+        // Assert
+        assertEquals(limit, total);
+        assertEquals(0, jdbcTemplate.queryForObject(ACQUIRE_SQL, Integer.class, key, intervalMicros, windowMicros, 1));
+    }
+}
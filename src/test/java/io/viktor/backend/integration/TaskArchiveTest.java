@@ -0,0 +1,82 @@
+package io.viktor.backend.integration;
+
+import io.viktor.backend.tasks.TaskPartitionMaintenance;
+import io.viktor.backend.tasks.TaskService;
+import io.viktor.backend.tasks.TaskSyncService;
+import io.viktor.backend.tasks.dto.TaskChangesResponse;
+import io.viktor.backend.tasks.dto.TaskSummaryResponse;
+import io.viktor.backend.users.User;
+import io.viktor.backend.users.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class TaskArchiveTest extends IntegrationTestBase {
+
+    @Autowired private UserRepository userRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private TaskPartitionMaintenance maintenance;
+    @Autowired private TaskService taskService;
+    @Autowired private TaskSyncService syncService;
+
+    private Long userId;
+
+    @BeforeEach
+    void setup() {
+        userRepository.deleteAll();
+        userId = userRepository.save(new User("archive@test.com", "x", User.Role.USER)).getId();
+    }
+
+    private void insertTask(String title, boolean completed, LocalDateTime createdAt) {
+        jdbcTemplate.queryForObject("SELECT ensure_task_partitions(?, ?)", Integer.class, createdAt, createdAt);
+        jdbcTemplate.update("INSERT INTO tasks (title, completed, user_id, created_at) VALUES (?, ?, ?, ?)",
+                title, completed, userId, createdAt);
+    }
+
+    @Test
+    void archive_movesTasksWithoutChangingSummaryOrSendingTombstones() {
+
+        // Arrange
+        LocalDateTime old = LocalDateTime.now(ZoneOffset.UTC).minusDays(200);
+        insertTask("old done 1", true, old);
+        insertTask("old done 2", true, old.plusMinutes(1));
+        insertTask("old open", false, old.plusMinutes(2));
+        insertTask("new done", true, LocalDateTime.now(ZoneOffset.UTC));
+
+        String watermark = syncService.changesSince(null, null, userId, false, 500).watermark();
+
+        // Act
+        long archived = maintenance.archive();
+
+        // Assert
+        assertEquals(2, archived);
+
+        TaskSummaryResponse summary = taskService.summary(null, userId, false);
+        assertEquals(4, summary.total());
+        assertEquals(3, summary.completed());
+        assertEquals(1, summary.pending());
+
+        TaskChangesResponse changes = syncService.changesSince(watermark, null, userId, false, 500);
+        assertTrue(changes.deleted().isEmpty());
+        assertTrue(changes.changed().isEmpty());
+
+        assertEquals(4, taskService.findAllAfter(null, null, userId, false, null, 10, true).content().size());
+        assertEquals(2, taskService.findAllAfter(null, null, userId, false, null, 10, false).content().size());
+
+        // Page totals cover live tasks only
+        assertEquals(2, taskService.findAll(null, null, userId, false, PageRequest.of(0, 1)).getTotalElements());
+        assertEquals(1, taskService.findAll(null, true, userId, false, PageRequest.of(0, 1)).getTotalElements());
+    }
+}
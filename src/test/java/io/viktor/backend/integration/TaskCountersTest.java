@@ -0,0 +1,99 @@
+package io.viktor.backend.integration;
+
+import io.viktor.backend.tasks.TaskFileFormat;
+import io.viktor.backend.tasks.TaskImportService;
+import io.viktor.backend.tasks.TaskService;
+import io.viktor.backend.tasks.dto.TaskBulkUpdateRequest;
+import io.viktor.backend.tasks.dto.TaskCreateRequest;
+import io.viktor.backend.tasks.dto.TaskResponse;
+import io.viktor.backend.tasks.dto.TaskSummaryResponse;
+import io.viktor.backend.tasks.dto.TaskUpdateRequest;
+import io.viktor.backend.users.User;
+import io.viktor.backend.users.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The task_counters triggers (V5) against COUNT(*) after every kind of write.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class TaskCountersTest extends IntegrationTestBase {
+
+    @Autowired private UserRepository userRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private TaskService taskService;
+    @Autowired private TaskImportService importService;
+
+    private Long userId;
+    private Long otherUserId;
+
+    @BeforeEach
+    void setup() {
+        userRepository.deleteAll();
+        userId = userRepository.save(new User("counters@test.com", "x", User.Role.USER)).getId();
+        otherUserId = userRepository.save(new User("other@test.com", "x", User.Role.USER)).getId();
+    }
+
+    private void assertCounters(Long user, long total, long completed) {
+        TaskSummaryResponse summary = taskService.summary(null, user, false);
+        assertEquals(total, summary.total());
+        assertEquals(completed, summary.completed());
+
+        Long counted = jdbcTemplate.queryForObject("SELECT count(*) FROM tasks WHERE user_id = ?", Long.class, user);
+        Long countedCompleted = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM tasks WHERE user_id = ? AND completed", Long.class, user);
+        assertEquals(counted, summary.total());
+        assertEquals(countedCompleted, summary.completed());
+    }
+
+    @Test
+    void counters_followInsertUpdateDeleteBulkAndImport() {
+
+        // Insert: single and batch
+        TaskResponse first = taskService.create(new TaskCreateRequest("first", null), userId, false);
+        taskService.createAll(List.of(
+                new TaskCreateRequest("second", null),
+                new TaskCreateRequest("third", null),
+                new TaskCreateRequest("fourth", null)), userId, false);
+        assertCounters(userId, 4, 0);
+
+        // Update by id
+        taskService.updateById(first.id(), new TaskUpdateRequest(true, null), userId, false, null);
+        assertCounters(userId, 4, 1);
+
+        // Bulk update by filter
+        taskService.updateAll(new TaskBulkUpdateRequest(null, null, false, new TaskUpdateRequest(true, null)), userId, false);
+        assertCounters(userId, 4, 4);
+
+        // Delete by id
+        taskService.deleteById(first.id(), userId, false);
+        assertCounters(userId, 3, 3);
+
+        // Import: rows for two users in one COPY
+        String ndjson = """
+                {"title": "imported 1", "completed": true, "userId": %d}
+                {"title": "imported 2", "userId": %d}
+                {"title": "imported 3", "userId": %d}
+                """.formatted(userId, userId, otherUserId);
+        importService.importTasks(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), TaskFileFormat.NDJSON);
+        assertCounters(userId, 5, 4);
+        assertCounters(otherUserId, 1, 0);
+
+        // Chunked bulk delete by filter
+        long deleted = taskService.deleteAll(null, true, false, userId, false);
+        assertEquals(4, deleted);
+        assertCounters(userId, 1, 0);
+        assertCounters(otherUserId, 1, 0);
+    }
+}
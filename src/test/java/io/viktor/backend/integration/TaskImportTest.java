@@ -0,0 +1,168 @@
+package io.viktor.backend.integration;
+
+import io.viktor.backend.security.JwtService;
+import io.viktor.backend.users.User;
+import io.viktor.backend.users.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class TaskImportTest extends IntegrationTestBase {
+
+    @Autowired private MockMvc mvc;
+    @Autowired private UserRepository userRepository;
+    @Autowired private JwtService jwtService;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private Long userId;
+    private String adminToken;
+
+    @BeforeEach
+    void setup() {
+        userRepository.deleteAll();
+        // Tokens are issued directly: the login rate limit is shared by every test class in this context
+        adminToken = jwtService.generateToken(userRepository.save(new User("admin@test.com", "x", User.Role.ADMIN)));
+        userId = userRepository.save(new User("user@test.com", "x", User.Role.USER)).getId();
+    }
+
+    @Test
+    void importNdjson_acceptsValidRows_andReportsBadRowsAndUnknownUsers() throws Exception {
+
+        // Arrange
+        long unknownUser = userId + 1000;
+        String body = """
+                {"title": "valid", "userId": %1$d}
+                {"title": "historic", "completed": true, "userId": %1$d, "createdAt": "2019-03-15T10:00:00Z"}
+                not json
+
+                {"title": "", "userId": %1$d}
+                {"title": "no owner"}
+                {"title": "bad flag", "completed": "yes", "userId": %1$d}
+                {"title": "bad date", "userId": %1$d, "createdAt": "yesterday"}
+                {"title": "orphan", "userId": %2$d}
+                """.formatted(userId, unknownUser);
+
+        // Act + Assert
+        mvc.perform(post("/api/v1/tasks/import")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted").value(2))
+                .andExpect(jsonPath("$.rejected").value(6))
+                .andExpect(jsonPath("$.errors", containsInAnyOrder(
+                        "line 3: Invalid JSON",
+                        "line 5: title must not be blank",
+                        "line 6: userId is required",
+                        "line 7: completed must be a boolean",
+                        "line 8: createdAt must be an ISO-8601 instant",
+                        "line 9: User not found: " + unknownUser)));
+
+        List<String> titles = jdbcTemplate.queryForList(
+                "SELECT title FROM tasks WHERE user_id = ? ORDER BY created_at", String.class, userId);
+        assertEquals(List.of("historic", "valid"), titles);
+        // The 2019 row needed a partition that did not exist before the import
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT count(*) FROM tasks_2019_03", Integer.class));
+    }
+
+    @Test
+    void importNdjson_rejectsCreatedAtOutsideThePartitionWindow() throws Exception {
+
+        // Arrange
+        String body = """
+                {"title": "ancient", "userId": %1$d, "createdAt": "0001-01-01T00:00:00Z"}
+                {"title": "far future", "userId": %1$d, "createdAt": "9999-12-31T00:00:00Z"}
+                {"title": "in range", "userId": %1$d, "createdAt": "2019-03-15T10:00:00Z"}
+                """.formatted(userId);
+        Integer partitionsBefore = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_inherits WHERE inhparent = 'tasks'::regclass", Integer.class);
+
+        // Act + Assert
+        mvc.perform(post("/api/v1/tasks/import")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted").value(1))
+                .andExpect(jsonPath("$.rejected").value(2))
+                .andExpect(jsonPath("$.errors[0]", startsWith("line 1: createdAt must be on or after 2000-01-01T00:00:00Z")))
+                .andExpect(jsonPath("$.errors[1]", startsWith("line 2: createdAt must be on or after 2000-01-01T00:00:00Z")));
+
+        // At most the one month the accepted row needed
+        Integer partitionsAfter = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_inherits WHERE inhparent = 'tasks'::regclass", Integer.class);
+        assertTrue(partitionsAfter - partitionsBefore <= 1);
+        assertNull(jdbcTemplate.queryForObject("SELECT to_regclass('tasks_0001_01')::text", String.class));
+    }
+
+    @Test
+    void importNdjson_rejectsTitlesPostgresCannotStore_andKeepsTheOtherRows() throws Exception {
+
+        // Arrange: JSON escapes for U+0000 and a lone high surrogate
+        String body = """
+                {"title": "before", "userId": %1$d}
+                {"title": "nul\\u0000byte", "userId": %1$d}
+                {"title": "lone \\ud800 surrogate", "userId": %1$d}
+                {"title": "after \\ud83d\\ude00", "userId": %1$d}
+                """.formatted(userId);
+
+        // Act + Assert
+        mvc.perform(post("/api/v1/tasks/import")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted").value(2))
+                .andExpect(jsonPath("$.rejected").value(2))
+                .andExpect(jsonPath("$.errors", containsInAnyOrder(
+                        "line 2: title must not contain NUL characters or unpaired surrogates",
+                        "line 3: title must not contain NUL characters or unpaired surrogates")));
+
+        assertEquals(List.of("after \uD83D\uDE00", "before"), jdbcTemplate.queryForList(
+                "SELECT title FROM tasks WHERE user_id = ? ORDER BY title", String.class, userId));
+    }
+
+    @Test
+    void importCsv_matchesColumnsByHeader_andRejectsUnknownUsers() throws Exception {
+
+        // Arrange
+        String body = """
+                userId,completed,title
+                %1$d,true,"comma, and ""quotes""\"
+                %2$d,false,orphan
+                %1$d,maybe,bad flag
+                """.formatted(userId, userId + 1000);
+
+        // Act + Assert
+        mvc.perform(post("/api/v1/tasks/import")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType("text/csv")
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted").value(1))
+                .andExpect(jsonPath("$.rejected").value(2));
+
+        assertEquals(List.of("comma, and \"quotes\""), jdbcTemplate.queryForList(
+                "SELECT title FROM tasks WHERE user_id = ? AND completed", String.class, userId));
+    }
+}
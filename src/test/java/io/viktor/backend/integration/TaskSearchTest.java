@@ -0,0 +1,73 @@
+package io.viktor.backend.integration;
+
+import io.viktor.backend.tasks.TaskSearchService;
+import io.viktor.backend.tasks.dto.TaskResponse;
+import io.viktor.backend.users.User;
+import io.viktor.backend.users.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class TaskSearchTest extends IntegrationTestBase {
+
+    @Autowired private UserRepository userRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private DataSource dataSource;
+
+    private Long userId;
+
+    @BeforeEach
+    void setup() {
+        userRepository.deleteAll();
+        userId = userRepository.save(new User("user@test.com", "x", User.Role.USER)).getId();
+    }
+
+    private void insert(String title, Instant createdAt) {
+        jdbcTemplate.update("INSERT INTO tasks (title, completed, user_id, created_at) VALUES (?, false, ?, ?)",
+                title, userId, Timestamp.from(createdAt));
+    }
+
+    @Test
+    void search_ranksOnlyTheNewestCandidates() {
+
+        // Arrange: the oldest match would rank first, but falls outside a window of two
+        Instant now = Instant.now();
+        insert("report report report", now.minus(2, ChronoUnit.DAYS));
+        insert("weekly report", now.minus(1, ChronoUnit.DAYS));
+        insert("notes on the report draft report", now);
+        insert("unrelated", now);
+        TaskSearchService searchService = new TaskSearchService(dataSource, 2);
+
+        // Act
+        List<TaskResponse> results = searchService.search("report", null, null, userId, false, 10);
+
+        // Assert
+        assertEquals(List.of("notes on the report draft report", "weekly report"),
+                results.stream().map(TaskResponse::title).toList());
+    }
+
+    @Test
+    void search_rejectsSizeAboveTheLimit() {
+
+        // Arrange
+        TaskSearchService searchService = new TaskSearchService(dataSource, 2);
+
+        // Act + Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> searchService.search("report", null, null, userId, false, 101));
+    }
+}
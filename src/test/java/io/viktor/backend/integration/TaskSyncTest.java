@@ -0,0 +1,130 @@
+package io.viktor.backend.integration;
+
+import io.viktor.backend.security.JwtService;
+import io.viktor.backend.tasks.SyncWatermark;
+import io.viktor.backend.tasks.TaskService;
+import io.viktor.backend.tasks.TaskSyncService;
+import io.viktor.backend.tasks.dto.TaskChangesResponse;
+import io.viktor.backend.tasks.dto.TaskCreateRequest;
+import io.viktor.backend.tasks.dto.TaskResponse;
+import io.viktor.backend.tasks.dto.TaskUpdateRequest;
+import io.viktor.backend.users.User;
+import io.viktor.backend.users.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class TaskSyncTest extends IntegrationTestBase {
+
+    @Autowired private MockMvc mvc;
+    @Autowired private UserRepository userRepository;
+    @Autowired private JwtService jwtService;
+    @Autowired private DataSource dataSource;
+    @Autowired private TaskService taskService;
+    @Autowired private TaskSyncService syncService;
+
+    private Long userId;
+    private String token;
+
+    @BeforeEach
+    void setup() {
+        userRepository.deleteAll();
+        User user = userRepository.save(new User("sync@test.com", "x", User.Role.USER));
+        userId = user.getId();
+        // Issued directly: the login rate limit is shared by every test class in this context
+        token = jwtService.generateToken(user);
+    }
+
+    @Test
+    void paging_acrossConcurrentWrites_deliversEveryChangeOnTheNextSync() throws Exception {
+
+        // Arrange
+        List<TaskResponse> tasks = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            tasks.add(taskService.create(new TaskCreateRequest("task " + i, null), userId, false));
+        }
+
+        Set<String> pagedTitles = new HashSet<>();
+        String watermark;
+
+        // Act: page through, with writes landing between pages
+        TaskChangesResponse page = syncService.changesSince(null, null, userId, false, 2);
+        page.changed().forEach(t -> pagedTitles.add(t.title()));
+        assertTrue(page.hasMore());
+
+        taskService.updateById(tasks.get(0).id(), new TaskUpdateRequest(null, "task 1 edited"), userId, false, null);
+        taskService.deleteById(tasks.get(4).id(), userId, false);
+
+        // A transaction that is still open while the remaining pages are read and commits after the
+        // last one: a commit-order-blind watermark would skip its row. It holds the user's
+        // task_counters row, so no other write for this user can run until it commits
+        try (Connection writer = dataSource.getConnection()) {
+            writer.setAutoCommit(false);
+            try (PreparedStatement insert = writer.prepareStatement("INSERT INTO tasks (title, user_id) VALUES ('late', ?)")) {
+                insert.setLong(1, userId);
+                insert.executeUpdate();
+            }
+
+            int pages = 1;
+            while (page.hasMore()) {
+                page = syncService.changesSince(page.watermark(), null, userId, false, 2);
+                page.changed().forEach(t -> pagedTitles.add(t.title()));
+                pages++;
+            }
+            watermark = page.watermark();
+            assertTrue(pages >= 2);
+
+            writer.commit();
+        }
+        TaskChangesResponse next = syncService.changesSince(watermark, null, userId, false, 500);
+
+        // Assert
+        assertFalse(pagedTitles.contains("late"));
+        assertTrue(pagedTitles.containsAll(List.of("task 2", "task 3", "task 4")));
+        List<String> nextTitles = next.changed().stream().map(TaskResponse::title).toList();
+        assertTrue(nextTitles.contains("late"));
+        assertTrue(nextTitles.contains("task 1 edited"));
+        assertTrue(next.deleted().contains(tasks.get(4).id()));
+        assertFalse(next.hasMore());
+    }
+
+    @Test
+    void changes_withWatermarkOlderThanTombstoneRetention_returns410() throws Exception {
+
+        // Arrange
+        String expired = new SyncWatermark(0, 0, Instant.now().minus(Duration.ofDays(31)), null, null).encode();
+
+        // Act + Assert
+        mvc.perform(get("/api/v1/tasks/changes")
+                        .param("since", expired)
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isGone());
+
+        mvc.perform(get("/api/v1/tasks/changes")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+    }
+}
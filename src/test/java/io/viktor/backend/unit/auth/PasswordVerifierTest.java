@@ -0,0 +1,73 @@
+package io.viktor.backend.unit.auth;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.viktor.backend.auth.PasswordVerifier;
+import io.viktor.backend.common.exception.ServiceUnavailableException;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PasswordVerifierTest {
+
+    @Test
+    void verify_rehashesWhenCostDiffers() {
+
+        // Arrange
+        PasswordEncoder encoder = new BCryptPasswordEncoder(5);
+        String oldHash = new BCryptPasswordEncoder(4).encode("secret123");
+        PasswordVerifier verifier = new PasswordVerifier(encoder, new SimpleMeterRegistry(), 5, 1, 4, Duration.ofSeconds(2));
+
+        // Act
+        PasswordVerifier.Result result = verifier.verify("secret123", oldHash);
+        PasswordVerifier.Result again = verifier.verify("secret123", result.rehashed());
+
+        // Assert
+        assertTrue(result.matches());
+        assertTrue(result.rehashed().startsWith("$2a$05$"));
+        assertTrue(again.matches());
+        assertNull(again.rehashed());
+    }
+
+    @Test
+    void verify_failsFastWhenQueueIsFull() throws Exception {
+
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder encoder = mock(PasswordEncoder.class);
+        when(encoder.matches(anyString(), anyString())).thenAnswer(inv -> {
+            release.await();
+            return false;
+        });
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PasswordVerifier verifier = new PasswordVerifier(encoder, registry, 10, 1, 1, Duration.ofSeconds(3));
+
+        CompletableFuture<?> running = CompletableFuture.runAsync(() -> verifier.verify("a", "$2a$10$x"));
+        CompletableFuture<?> queued = CompletableFuture.runAsync(() -> verifier.verify("b", "$2a$10$x"));
+        while (registry.get("auth_password_queue_depth").gauge().value() < 1
+                || registry.get("auth_password_active").gauge().value() < 1) {
+            Thread.sleep(5);
+        }
+
+        // Act
+        ServiceUnavailableException ex = assertThrows(ServiceUnavailableException.class,
+                () -> verifier.verify("c", "$2a$10$x"));
+
+        // Assert
+        assertEquals(Duration.ofSeconds(3), ex.getRetryAfter());
+        assertEquals(1.0, registry.get("auth_password_rejected_total").counter().count());
+        release.countDown();
+        CompletableFuture.allOf(running, queued).join();
+    }
+}
@@ -0,0 +1,62 @@
+package io.viktor.backend.unit.common;
+
+import io.viktor.backend.common.db.ConnectionLimitingDataSource;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ConnectionLimitingDataSourceTest {
+
+    @Test
+    void getConnection_timesOutWhenAllPermitsAreHeld_andCloseReleasesOnce() throws SQLException {
+
+        // Arrange
+        Connection pooled = mock(Connection.class);
+        DataSource pool = mock(DataSource.class);
+        when(pool.getConnection()).thenReturn(pooled);
+        ConnectionLimitingDataSource limited = new ConnectionLimitingDataSource("test", pool, 1, 10, Duration.ofMillis(50));
+
+        // Act
+        Connection first = limited.getConnection();
+
+        // Assert
+        assertThrows(SQLTransientConnectionException.class, limited::getConnection);
+
+        first.close();
+        first.close(); // a second close must not hand out an extra permit
+        Connection second = limited.getConnection();
+        assertNotNull(second);
+        assertThrows(SQLTransientConnectionException.class, limited::getConnection);
+        verify(pooled, times(2)).close();
+    }
+
+    @Test
+    void getConnection_refusesAtOnceWhenTheWaitQueueIsFull() throws SQLException {
+
+        // Arrange: one permit, held, and no room to wait for it
+        DataSource pool = mock(DataSource.class);
+        when(pool.getConnection()).thenReturn(mock(Connection.class));
+        ConnectionLimitingDataSource limited = new ConnectionLimitingDataSource("test", pool, 1, 0, Duration.ofSeconds(30));
+        limited.getConnection();
+
+        // Act
+        long start = System.nanoTime();
+        SQLTransientConnectionException ex = assertThrows(SQLTransientConnectionException.class, limited::getConnection);
+
+        // Assert
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(1)) < 0);
+        assertTrue(ex.getMessage().contains("already waiting"));
+    }
+}
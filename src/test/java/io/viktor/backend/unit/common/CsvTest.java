@@ -0,0 +1,57 @@
+package io.viktor.backend.unit.common;
+
+import io.viktor.backend.common.csv.Csv;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CsvTest {
+
+    @Test
+    void reader_parsesQuotedFields_withCommasQuotesAndLineBreaks() throws IOException {
+
+        // Arrange
+        String input = "title,userId\r\n\"a, \"\"b\"\"\nc\",2\nplain,3";
+        Csv.Reader reader = new Csv.Reader(new StringReader(input));
+
+        // Act
+        List<String> header = reader.next();
+        List<String> first = reader.next();
+        List<String> second = reader.next();
+
+        // Assert
+        assertEquals(List.of("title", "userId"), header);
+        assertEquals(List.of("a, \"b\"\nc", "2"), first);
+        assertEquals(List.of("plain", "3"), second);
+        assertNull(reader.next());
+    }
+
+    @Test
+    void reader_roundTripsEscapedValues() throws IOException {
+
+        // Arrange
+        String value = "say \"hi\", then\r\nleave";
+
+        // Act
+        List<String> record = new Csv.Reader(new StringReader(Csv.escape(value) + ",x\n")).next();
+
+        // Assert
+        assertEquals(List.of(value, "x"), record);
+    }
+
+    @Test
+    void reader_rejectsUnterminatedQuotes() {
+
+        // Arrange
+        Csv.Reader reader = new Csv.Reader(new StringReader("\"open,1\n"));
+
+        // Act / Assert
+        assertThrows(IllegalArgumentException.class, reader::next);
+    }
+}
@@ -0,0 +1,51 @@
+package io.viktor.backend.unit.common;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.viktor.backend.common.db.QueryTimingDataSource;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class QueryTimingDataSourceTest {
+
+    @Test
+    void executes_areTimedByOperationAndTable_andConnectionAcquisitionIsRecorded() throws SQLException {
+
+        // Arrange
+        String select = "select t1_0.id,t1_0.title from tasks t1_0 where t1_0.owner_id=?";
+        PreparedStatement prepared = mock(PreparedStatement.class);
+        Statement plain = mock(Statement.class);
+        Connection pooled = mock(Connection.class);
+        when(pooled.prepareStatement(select)).thenReturn(prepared);
+        when(pooled.createStatement()).thenReturn(plain);
+        DataSource pool = mock(DataSource.class);
+        when(pool.getConnection()).thenReturn(pooled);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        QueryTimingDataSource dataSource = new QueryTimingDataSource(pool, registry);
+
+        // Act
+        try (Connection connection = dataSource.getConnection()) {
+            PreparedStatement statement = connection.prepareStatement(select);
+            statement.setLong(1, 7L);
+            statement.executeQuery();
+            statement.executeQuery();
+            connection.createStatement().executeUpdate("DELETE FROM rate_limit_cells WHERE tat < now()");
+        }
+
+        // Assert
+        verify(prepared).setLong(1, 7L);
+        verify(pooled).close();
+        assertEquals(1, registry.get("db_connection_acquire").timer().count());
+        assertEquals(2, registry.get("db_query_duration").tags("operation", "select", "table", "tasks").timer().count());
+        assertEquals(1, registry.get("db_query_duration").tags("operation", "delete", "table", "rate_limit_cells").timer().count());
+    }
+}
@@ -0,0 +1,138 @@
+package io.viktor.backend.unit.common;
+
+import io.viktor.backend.common.db.ReplicaRoutingDataSource;
+import io.viktor.backend.security.AuthenticatedUser;
+import io.viktor.backend.users.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ReplicaRoutingDataSourceTest {
+
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection replica0Connection = mock(Connection.class);
+    private final Connection replica1Connection = mock(Connection.class);
+
+    private final DataSource primary = mock(DataSource.class);
+    private final DataSource replica0 = mock(DataSource.class);
+    private final DataSource replica1 = mock(DataSource.class);
+
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica0.getConnection()).thenReturn(replica0Connection);
+        when(replica1.getConnection()).thenReturn(replica1Connection);
+
+        routing = new ReplicaRoutingDataSource(primary, List.of(
+                new ReplicaRoutingDataSource.Replica("replica-0", replica0),
+                new ReplicaRoutingDataSource.Replica("replica-1", replica1)
+        ), Duration.ofSeconds(10), Duration.ofMinutes(1));
+        routing.afterPropertiesSet();
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clear();
+        SecurityContextHolder.clearContext();
+    }
+
+    // replica-0 passes the health check with 0.5s of lag, replica-1 refuses connections
+    private void probeWithOnlyReplica0Up() throws SQLException {
+        Statement statement = mock(Statement.class);
+        ResultSet lag = mock(ResultSet.class);
+        when(replica0Connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenReturn(lag);
+        when(lag.next()).thenReturn(true);
+        when(lag.getDouble(1)).thenReturn(0.5);
+        when(replica1.getConnection()).thenThrow(new SQLException("connection refused"));
+        routing.checkReplicas();
+    }
+
+    @Test
+    void readOnly_usesPrimary_untilAReplicaPassesAHealthCheck() throws SQLException {
+
+        // Arrange
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // Act
+        Connection connection = routing.getConnection();
+
+        // Assert
+        assertSame(primaryConnection, connection);
+        verify(replica0, never()).getConnection();
+        verify(replica1, never()).getConnection();
+    }
+
+    @Test
+    void readOnly_fallsBackToPrimary_andEjectsReplicaThatCannotConnect() throws SQLException {
+
+        // Arrange
+        probeWithOnlyReplica0Up();
+        when(replica0.getConnection()).thenThrow(new SQLException("too many clients"));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // Act
+        Connection first = routing.getConnection();
+        Connection second = routing.getConnection();
+
+        // Assert: one failed attempt after the health check, then no more until the next check
+        assertSame(primaryConnection, first);
+        assertSame(primaryConnection, second);
+        verify(replica0, times(2)).getConnection();
+    }
+
+    @Test
+    void readOnly_skipsEjectedReplica_andWritesGoToPrimary() throws SQLException {
+
+        // Arrange
+        probeWithOnlyReplica0Up();
+
+        // Act / Assert
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertSame(replica0Connection, routing.getConnection());
+        assertSame(replica0Connection, routing.getConnection());
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        assertSame(primaryConnection, routing.getConnection());
+    }
+
+    @Test
+    void readOnly_staysOnPrimary_afterUsersWriteCommits() throws SQLException {
+
+        // Arrange
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(new AuthenticatedUser(7L, User.Role.USER, 0), null, List.of()));
+        routing.getConnection(); // write transaction
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        // Act
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        Connection connection = routing.getConnection();
+
+        // Assert
+        assertSame(primaryConnection, connection);
+    }
+}
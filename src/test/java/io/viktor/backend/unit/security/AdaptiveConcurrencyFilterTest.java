@@ -0,0 +1,92 @@
+package io.viktor.backend.unit.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.viktor.backend.security.concurrency.AdaptiveConcurrencyFilter;
+import io.viktor.backend.security.concurrency.AdaptiveConcurrencyProperties;
+import io.viktor.backend.security.concurrency.GradientLimiter;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AdaptiveConcurrencyFilterTest {
+
+    private static final long MILLIS = 1_000_000;
+
+    @Test
+    void limiter_shrinksOnLatencySpike_andGrowsBackWhenHealthy() {
+
+        // Arrange
+        GradientLimiter limiter = new GradientLimiter(100, 10, 1000, 2.0);
+        for (int i = 0; i < 200; i++) sample(limiter, 10 * MILLIS, 90);
+        int healthy = limiter.limit();
+
+        // Act
+        for (int i = 0; i < 50; i++) sample(limiter, 200 * MILLIS, 90);
+        int degraded = limiter.limit();
+        for (int i = 0; i < 500; i++) sample(limiter, 10 * MILLIS, degraded);
+        int recovered = limiter.limit();
+
+        // Assert
+        assertTrue(healthy > 100, "healthy latency with a saturated limit should grow it: " + healthy);
+        assertTrue(degraded < healthy / 2, "latency spike should cut the limit: " + degraded);
+        assertTrue(recovered > degraded, "limit should recover once latency is back: " + recovered);
+    }
+
+    @Test
+    void limiter_doesNotGrow_whileUnderused() {
+
+        // Arrange
+        GradientLimiter limiter = new GradientLimiter(100, 10, 1000, 2.0);
+
+        // Act
+        for (int i = 0; i < 200; i++) sample(limiter, 10 * MILLIS, 5);
+
+        // Assert
+        assertEquals(100, limiter.limit());
+    }
+
+    @Test
+    void doFilter_shedsBulkBeforeCritical_whileSaturated() throws Exception {
+
+        // Arrange: limit 2, so bulk is capped at 1 in flight and critical at 3
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AdaptiveConcurrencyFilter filter = new AdaptiveConcurrencyFilter(new AdaptiveConcurrencyProperties(
+                true, 2, 2, 2, 2.0, 0.5, 0.5,
+                List.of("/actuator/health"),
+                List.of("GET /api/v1/tasks/export")), registry);
+        List<Integer> nested = new ArrayList<>();
+
+        // Act: both nested requests arrive while the outer one is still in flight
+        MockHttpServletResponse outer = new MockHttpServletResponse();
+        filter.doFilter(request("GET", "/api/v1/tasks/7"), outer, (req, res) -> {
+            MockHttpServletResponse bulk = new MockHttpServletResponse();
+            filter.doFilter(request("GET", "/api/v1/tasks/export"), bulk, (r, s) -> {});
+            MockHttpServletResponse health = new MockHttpServletResponse();
+            filter.doFilter(request("GET", "/actuator/health"), health, (r, s) -> {});
+            nested.add(bulk.getStatus());
+            nested.add(health.getStatus());
+            assertEquals("1", bulk.getHeader("Retry-After"));
+        });
+
+        // Assert
+        assertEquals(200, outer.getStatus());
+        assertEquals(List.of(503, 200), nested);
+        assertEquals(1.0, registry.get("adaptive_concurrency_rejected_total").tag("priority", "bulk").counter().count());
+        assertEquals(0.0, registry.get("adaptive_concurrency_in_flight").gauge().value());
+    }
+
+    private static void sample(GradientLimiter limiter, long rttNanos, int inFlight) {
+        limiter.tryAcquire(1.0);
+        limiter.release(rttNanos, inFlight);
+    }
+
+    private static MockHttpServletRequest request(String method, String uri) {
+        return new MockHttpServletRequest(method, uri);
+    }
+}
@@ -0,0 +1,83 @@
+package io.viktor.backend.unit.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.viktor.backend.security.ratelimit.GcraRateLimiter;
+import io.viktor.backend.security.ratelimit.RateLimitStore;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GcraRateLimiterTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    @Test
+    void tryAcquire_allowsBurstThenRefillsContinuously() {
+
+        // Arrange
+        GcraRateLimiter limiter = new GcraRateLimiter("test", 10, Duration.ofMinutes(1), 100, new SimpleMeterRegistry(), nanos::get);
+
+        // Act / Assert
+        for (int i = 9; i >= 0; i--) {
+            RateLimitStore.Decision decision = limiter.tryAcquire("10.0.0.1");
+            assertTrue(decision.allowed());
+            assertEquals(i, decision.remaining());
+        }
+
+        RateLimitStore.Decision denied = limiter.tryAcquire("10.0.0.1");
+        assertFalse(denied.allowed());
+        assertEquals(Duration.ofSeconds(6).toNanos(), denied.retryAfterNanos());
+        assertTrue(limiter.tryAcquire("10.0.0.2").allowed());
+
+        nanos.addAndGet(Duration.ofSeconds(6).toNanos());
+        assertTrue(limiter.tryAcquire("10.0.0.1").allowed());
+    }
+
+    @Test
+    void tryAcquire_keepsMemoryBoundedUnderFloodOfDistinctKeys() {
+
+        // Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        GcraRateLimiter limiter = new GcraRateLimiter("test", 10, Duration.ofMinutes(1), 10_000, registry, nanos::get);
+
+        // Act
+        for (int i = 0; i < 200_000; i++) {
+            limiter.tryAcquire("ip-" + i);
+        }
+        long afterFlood = limiter.size();
+        nanos.addAndGet(Duration.ofMinutes(1).plusSeconds(1).toNanos());
+        long afterWindow = limiter.size();
+
+        // Assert
+        assertTrue(afterFlood <= 10_000, "size was " + afterFlood);
+        assertEquals(0, afterWindow);
+        assertTrue(registry.get("cache.evictions").tag("cache", "test").functionCounter().count() > 0);
+    }
+
+    @Test
+    void tryAcquire_keepsThrottledKeyThrottled_throughTenMillionKeyFlood() {
+
+        // Arrange
+        GcraRateLimiter limiter = new GcraRateLimiter("test", 10, Duration.ofMinutes(1), 10_000, new SimpleMeterRegistry(), nanos::get);
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire("attacker");
+        }
+        assertFalse(limiter.tryAcquire("attacker").allowed());
+
+        // Act
+        for (int i = 0; i < 10_000_000; i++) {
+            limiter.tryAcquire("ip-" + i);
+        }
+        long afterFlood = limiter.size();
+        RateLimitStore.Decision afterFloodDecision = limiter.tryAcquire("attacker");
+
+        // Assert
+        assertTrue(afterFlood <= 10_000, "size was " + afterFlood);
+        assertFalse(afterFloodDecision.allowed());
+    }
+}
@@ -0,0 +1,76 @@
+package io.viktor.backend.unit.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.viktor.backend.security.AuthenticatedUser;
+import io.viktor.backend.security.JwtAuthFilter;
+import io.viktor.backend.security.JwtService;
+import io.viktor.backend.security.TokenRevocationCache;
+import io.viktor.backend.users.User;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class JwtAuthFilterTest {
+
+    private final JwtService jwtService = mock(JwtService.class);
+    private final TokenRevocationCache revocationCache = mock(TokenRevocationCache.class);
+    private final FilterChain chain = mock(FilterChain.class);
+    private final JwtAuthFilter filter = new JwtAuthFilter(jwtService, revocationCache, new SimpleMeterRegistry(), false);
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private MockHttpServletResponse send(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/tasks");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    @Test
+    void doFilter_invalidToken_continuesUnauthenticated() throws Exception {
+
+        // Arrange
+        when(jwtService.parse("bad")).thenThrow(new IllegalArgumentException("bad token"));
+
+        // Act
+        MockHttpServletResponse response = send("bad");
+
+        // Assert
+        assertEquals(200, response.getStatus());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(chain).doFilter(any(), any());
+    }
+
+    @Test
+    void doFilter_revocationLookupFails_answers503InsteadOf401() throws Exception {
+
+        // Arrange
+        AuthenticatedUser user = new AuthenticatedUser(3L, User.Role.USER, 0);
+        when(jwtService.parse("good")).thenReturn(user);
+        when(revocationCache.isCurrent(user)).thenThrow(new DataAccessResourceFailureException("no connection"));
+
+        // Act
+        MockHttpServletResponse response = send("good");
+
+        // Assert
+        assertEquals(503, response.getStatus());
+        assertEquals("1", response.getHeader("Retry-After"));
+        verify(chain, never()).doFilter(any(), any());
+    }
+}
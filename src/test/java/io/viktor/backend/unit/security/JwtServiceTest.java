@@ -0,0 +1,58 @@
+package io.viktor.backend.unit.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.viktor.backend.security.AuthenticatedUser;
+import io.viktor.backend.security.JwtService;
+import io.viktor.backend.users.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class JwtServiceTest {
+
+    private static final String SECRET = Base64.getEncoder().encodeToString(new byte[32]);
+
+    @Test
+    void parse_buildsPrincipalFromClaims() {
+
+        // Arrange
+        JwtService jwtService = new JwtService(SECRET, 60_000, 100, new SimpleMeterRegistry());
+        User user = mock(User.class);
+        when(user.getId()).thenReturn(5L);
+        when(user.getEmail()).thenReturn("admin@example.com");
+        when(user.getRole()).thenReturn(User.Role.ADMIN);
+        when(user.getTokenVersion()).thenReturn(3L);
+
+        // Act
+        AuthenticatedUser principal = jwtService.parse(jwtService.generateToken(user));
+
+        // Assert
+        assertEquals(new AuthenticatedUser(5L, User.Role.ADMIN, 3L), principal);
+        assertEquals("ROLE_ADMIN", principal.authorities().get(0).getAuthority());
+    }
+
+    @Test
+    void parse_verifiesEachTokenOnce() {
+
+        // Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        JwtService jwtService = new JwtService(SECRET, 60_000, 100, registry);
+        User user = mock(User.class);
+        when(user.getId()).thenReturn(8L);
+        when(user.getRole()).thenReturn(User.Role.USER);
+        String token = jwtService.generateToken(user);
+
+        // Act
+        AuthenticatedUser first = jwtService.parse(token);
+        AuthenticatedUser second = jwtService.parse(token);
+
+        // Assert
+        assertEquals(first, second);
+        assertEquals(1, registry.get("jwt_verify_duration").timer().count());
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", "jwt_verified").tag("result", "hit").functionCounter().count());
+    }
+}
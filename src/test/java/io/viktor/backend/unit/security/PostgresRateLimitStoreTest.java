@@ -0,0 +1,74 @@
+package io.viktor.backend.unit.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.viktor.backend.security.ratelimit.PostgresRateLimitStore;
+import io.viktor.backend.security.ratelimit.RateLimitStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PostgresRateLimitStoreTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final RateLimitStore fallback = mock(RateLimitStore.class);
+
+    @Test
+    void tryAcquire_servesLeasedTokensAndCachedDenialsWithoutRoundTrips() {
+
+        // Arrange
+        List<String> calls = new ArrayList<>();
+        List<PostgresRateLimitStore.Grant> grants = new ArrayList<>(List.of(
+                new PostgresRateLimitStore.Grant(3, 0, 0),
+                new PostgresRateLimitStore.Grant(0, 0, 2_000_000)));
+        PostgresRateLimitStore store = new PostgresRateLimitStore("api", 60, Duration.ofMinutes(1), 3, 100,
+                (key, interval, window, max) -> {
+                    calls.add(key + "/" + interval + "/" + max);
+                    return grants.remove(0);
+                }, fallback, new SimpleMeterRegistry(), nanos::get);
+
+        // Act / Assert
+        for (int remaining = 2; remaining >= 0; remaining--) {
+            RateLimitStore.Decision decision = store.tryAcquire("user-1");
+            assertTrue(decision.allowed());
+            assertEquals(remaining, decision.remaining());
+        }
+        assertEquals(List.of("api:user-1/1000000/3"), calls);
+
+        RateLimitStore.Decision denied = store.tryAcquire("user-1");
+        assertFalse(denied.allowed());
+        assertEquals(Duration.ofSeconds(2).toNanos(), denied.retryAfterNanos());
+
+        nanos.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertEquals(Duration.ofSeconds(1).toNanos(), store.tryAcquire("user-1").retryAfterNanos());
+        assertEquals(2, calls.size());
+    }
+
+    @Test
+    void tryAcquire_fallsBackToLocalLimiterWhenDatabaseFails() {
+
+        // Arrange
+        RateLimitStore.Decision local = new RateLimitStore.Decision(true, 4, 0);
+        when(fallback.tryAcquire("10.0.0.1")).thenReturn(local);
+        PostgresRateLimitStore store = new PostgresRateLimitStore("login", 10, Duration.ofMinutes(1), 1, 100,
+                (key, interval, window, max) -> {
+                    throw new DataAccessResourceFailureException("connection refused");
+                }, fallback, new SimpleMeterRegistry(), nanos::get);
+
+        // Act
+        RateLimitStore.Decision decision = store.tryAcquire("10.0.0.1");
+
+        // Assert
+        assertSame(local, decision);
+    }
+}
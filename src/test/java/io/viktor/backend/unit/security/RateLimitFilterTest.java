@@ -0,0 +1,109 @@
+package io.viktor.backend.unit.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.viktor.backend.security.AuthenticatedUser;
+import io.viktor.backend.security.ratelimit.RateLimitFilter;
+import io.viktor.backend.security.ratelimit.RateLimitProperties;
+import io.viktor.backend.security.ratelimit.RateLimitStoreFactory;
+import io.viktor.backend.users.User;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class RateLimitFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final FilterChain chain = mock(FilterChain.class);
+
+    private final RateLimitFilter filter = new RateLimitFilter(
+            new RateLimitProperties(List.of(
+                    new RateLimitProperties.Policy("login", "/api/v1/auth/login", List.of("post"), 1, null, Duration.ofMinutes(1),
+                            RateLimitProperties.Key.IP),
+                    new RateLimitProperties.Policy("api", "/api/**", null, 1, Map.of("USER", 2), Duration.ofMinutes(1), null))),
+            new RateLimitStoreFactory(mock(DataSource.class), registry, "local", 1000, 0.1),
+            registry);
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void doFilter_limitsUsersByTier_andCountsRejections() throws Exception {
+
+        // Arrange
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                new AuthenticatedUser(3L, User.Role.USER, 0), null, List.of()));
+
+        // Act
+        MockHttpServletResponse first = send("GET", "/api/v1/tasks");
+        MockHttpServletResponse second = send("GET", "/api/v1/tasks/7");
+        MockHttpServletResponse third = send("GET", "/api/v1/tasks");
+
+        // Assert
+        assertEquals("2", first.getHeader("X-Rate-Limit-Limit"));
+        assertEquals("0", second.getHeader("X-Rate-Limit-Remaining"));
+        assertEquals(429, third.getStatus());
+        assertEquals("30", third.getHeader("Retry-After"));
+        verify(chain, times(2)).doFilter(any(), any());
+        assertEquals(1.0, registry.get("rate_limit_rejected_total").tags("policy", "api", "tier", "USER").counter().count());
+    }
+
+    @Test
+    void doFilter_appliesFirstMatchingPolicy_perClientIp() throws Exception {
+
+        // Act
+        MockHttpServletResponse login = send("POST", "/api/v1/auth/login");
+        MockHttpServletResponse secondLogin = send("POST", "/api/v1/auth/login");
+        MockHttpServletResponse other = send("GET", "/actuator/health");
+
+        // Assert
+        assertEquals(200, login.getStatus());
+        assertEquals(429, secondLogin.getStatus());
+        assertNull(other.getHeader("X-Rate-Limit-Limit"));
+        assertEquals(1.0, registry.get("rate_limit_rejected_total").tags("policy", "login", "tier", "ANONYMOUS").counter().count());
+    }
+
+    @Test
+    void doFilter_keysIpPolicyByClientIp_evenWithDifferentUsers() throws Exception {
+
+        // Arrange
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                new AuthenticatedUser(3L, User.Role.USER, 0), null, List.of()));
+        MockHttpServletResponse first = send("POST", "/api/v1/auth/login");
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                new AuthenticatedUser(4L, User.Role.USER, 0), null, List.of()));
+
+        // Act
+        MockHttpServletResponse second = send("POST", "/api/v1/auth/login");
+
+        // Assert
+        assertEquals(200, first.getStatus());
+        assertEquals(429, second.getStatus());
+        assertEquals(1.0, registry.get("rate_limit_rejected_total").tags("policy", "login", "tier", "ANONYMOUS").counter().count());
+    }
+
+    private MockHttpServletResponse send(String method, String uri) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setRemoteAddr("10.0.0.1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+}
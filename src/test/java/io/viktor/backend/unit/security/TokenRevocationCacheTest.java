@@ -0,0 +1,36 @@
+package io.viktor.backend.unit.security;
+
+import io.viktor.backend.security.AuthenticatedUser;
+import io.viktor.backend.security.TokenRevocationCache;
+import io.viktor.backend.users.User;
+import io.viktor.backend.users.UserRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TokenRevocationCacheTest {
+
+    @Test
+    void isCurrent_rejectsStaleVersionsAndDeletedUsers_withOneLookupPerUser() {
+
+        // Arrange
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.of(2L));
+        when(userRepository.findTokenVersionById(9L)).thenReturn(Optional.empty());
+        TokenRevocationCache cache = new TokenRevocationCache(userRepository, Duration.ofMinutes(1), 100);
+
+        // Act / Assert
+        assertTrue(cache.isCurrent(new AuthenticatedUser(1L, User.Role.USER, 2L)));
+        assertFalse(cache.isCurrent(new AuthenticatedUser(1L, User.Role.ADMIN, 1L)));
+        assertFalse(cache.isCurrent(new AuthenticatedUser(9L, User.Role.USER, 0L)));
+        verify(userRepository, times(1)).findTokenVersionById(1L);
+    }
+}
@@ -0,0 +1,33 @@
+package io.viktor.backend.unit.tasks;
+
+import io.viktor.backend.tasks.SyncWatermark;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SyncWatermarkTest {
+
+    @Test
+    void encode_decode_roundTripsPendingSnapshot() {
+
+        // Arrange
+        Instant issuedAt = Instant.parse("2026-03-01T10:00:00.123Z");
+        SyncWatermark watermark = new SyncWatermark(812L, 40L, issuedAt, 900L, issuedAt.plusSeconds(60));
+
+        // Act
+        SyncWatermark decoded = SyncWatermark.decode(watermark.encode());
+
+        // Assert
+        assertEquals(watermark, decoded);
+    }
+
+    @Test
+    void decode_rejectsTamperedTokens() {
+
+        // Act / Assert
+        assertThrows(IllegalArgumentException.class, () -> SyncWatermark.decode("not-a-watermark"));
+    }
+}
@@ -0,0 +1,127 @@
+package io.viktor.backend.unit.tasks;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.viktor.backend.tasks.TaskCache;
+import io.viktor.backend.tasks.dto.TaskEvent;
+import io.viktor.backend.tasks.dto.TaskResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TaskCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TaskCache taskCache = new TaskCache(100, Duration.ofMinutes(5), meterRegistry);
+
+    @Test
+    void get_loadsOnce_andServesRepeatedReadsFromCache() {
+
+        // Arrange
+        AtomicInteger loads = new AtomicInteger();
+        TaskResponse task = new TaskResponse(1L, "cached", false, 3L, Instant.now(), 0L);
+
+        // Act
+        taskCache.get(1L, id -> { loads.incrementAndGet(); return Optional.of(task); });
+        Optional<TaskResponse> second = taskCache.get(1L, id -> { loads.incrementAndGet(); return Optional.of(task); });
+
+        // Assert
+        assertEquals(1, loads.get());
+        assertEquals(task, second.orElseThrow());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "tasks").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "tasks").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void get_doesNotCacheMissingTasks() {
+
+        // Arrange
+        AtomicInteger loads = new AtomicInteger();
+
+        // Act
+        taskCache.get(2L, id -> { loads.incrementAndGet(); return Optional.empty(); });
+        taskCache.get(2L, id -> { loads.incrementAndGet(); return Optional.empty(); });
+
+        // Assert
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_evictedWhileLoading_doesNotCacheTheLoadedRow() {
+
+        // Arrange: the row is read, then a writer commits and evicts before the load returns
+        TaskResponse stale = new TaskResponse(5L, "read before the update", false, 3L, Instant.now(), 1L);
+
+        // Act
+        Optional<TaskResponse> loaded = taskCache.get(5L, id -> { taskCache.evict(id); return Optional.of(stale); });
+
+        // Assert
+        assertEquals(stale, loaded.orElseThrow());
+        assertTrue(taskCache.peek(5L).isEmpty());
+    }
+
+    @Test
+    void evict_outsideTransaction_removesEntryImmediately() {
+
+        // Arrange
+        TaskResponse task = new TaskResponse(3L, "stale", false, 3L, Instant.now(), 0L);
+        taskCache.putAfterCommit(task);
+
+        // Act
+        taskCache.evict(3L);
+
+        // Assert
+        assertTrue(taskCache.peek(3L).isEmpty());
+    }
+
+    @Test
+    void get_inReadOnlyTransaction_doesNotRepopulateEvictedEntry() {
+
+        // Arrange: the writer's eviction has run, a lagging replica still returns the old version
+        TaskResponse stale = new TaskResponse(4L, "before update", false, 3L, Instant.now(), 1L);
+        TaskResponse fresh = new TaskResponse(4L, "after update", false, 3L, Instant.now(), 2L);
+        taskCache.putAfterCommit(stale);
+        taskCache.evict(4L);
+
+        // Act
+        Optional<TaskResponse> fromReplica;
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        try {
+            fromReplica = taskCache.get(4L, id -> Optional.of(stale));
+        } finally {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        }
+        Optional<TaskResponse> fromPrimary = taskCache.get(4L, id -> Optional.of(fresh));
+
+        // Assert
+        assertEquals(stale, fromReplica.orElseThrow());
+        assertEquals(fresh, fromPrimary.orElseThrow());
+        assertEquals(fresh, taskCache.peek(4L).orElseThrow());
+    }
+
+    @Test
+    void evictFor_dropsListedIds_andEverythingOnUnlistedEvents() {
+
+        // Arrange
+        taskCache.putAfterCommit(new TaskResponse(5L, "a", false, 3L, Instant.now(), 0L));
+        taskCache.putAfterCommit(new TaskResponse(6L, "b", false, 3L, Instant.now(), 0L));
+        taskCache.putAfterCommit(new TaskResponse(7L, "c", false, 4L, Instant.now(), 0L));
+
+        // Act
+        taskCache.evictFor(new TaskEvent(TaskEvent.Type.UPDATED, 3L, List.of(5L)));
+        boolean listedEvicted = taskCache.peek(5L).isEmpty() && taskCache.peek(6L).isPresent();
+        taskCache.evictFor(new TaskEvent(TaskEvent.Type.DELETED, 3L, null));
+
+        // Assert
+        assertTrue(listedEvicted);
+        assertTrue(taskCache.peek(6L).isEmpty());
+        assertTrue(taskCache.peek(7L).isEmpty());
+    }
+}
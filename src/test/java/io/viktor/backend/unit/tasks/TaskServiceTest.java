@@ -1,26 +1,44 @@
 package io.viktor.backend.unit.tasks;
 
+import io.viktor.backend.common.exception.PreconditionFailedException;
+import io.viktor.backend.common.web.CursorPage;
 import io.viktor.backend.tasks.Task;
+import io.viktor.backend.tasks.ArchivedTaskRepository;
+import io.viktor.backend.tasks.TaskCache;
+import io.viktor.backend.tasks.TaskCounter;
+import io.viktor.backend.tasks.TaskCounterRepository;
+import io.viktor.backend.tasks.TaskCursor;
+import io.viktor.backend.tasks.TaskEventPublisher;
 import io.viktor.backend.tasks.TaskRepository;
 import io.viktor.backend.tasks.TaskService;
+import io.viktor.backend.tasks.dto.TaskBatchItemResult;
+import io.viktor.backend.tasks.dto.TaskBulkUpdateRequest;
 import io.viktor.backend.tasks.dto.TaskCreateRequest;
+import io.viktor.backend.tasks.dto.TaskEvent;
+import io.viktor.backend.tasks.dto.TaskResponse;
+import io.viktor.backend.tasks.dto.TaskSummaryResponse;
+import io.viktor.backend.tasks.dto.TaskUpdateRequest;
 import io.viktor.backend.users.UserRepository;
 import io.viktor.backend.users.User;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.argThat;
@@ -31,6 +49,7 @@ import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyLong;
 import static org.mockito.Mockito.anyBoolean;
+import static org.mockito.Mockito.anyInt;
 
 @ExtendWith(MockitoExtension.class)
 public class TaskServiceTest {
@@ -41,26 +60,41 @@ public class TaskServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private TaskCounterRepository taskCounterRepository;
+
+    @Mock
+    private ArchivedTaskRepository archivedTaskRepository;
+
+    @Mock
+    private TaskCache taskCache;
+
+    @Mock
+    private TaskEventPublisher eventPublisher;
+
+    @Mock
+    private Validator validator;
+
     @InjectMocks
     private TaskService taskService;
 
     @Test
-    void findAll_asAdminWithoutFilters_callsFindAll() {
+    void findAll_asAdminWithoutFilters_callsFindAllResponses() {
 
         // Arrange
         Pageable pageable = PageRequest.of(0, 10);
-        Page<Task> page = new PageImpl<>(List.of());
+        List<TaskResponse> page = List.of();
 
-        when(taskRepository.findAll(pageable)).thenReturn(page);
+        when(taskRepository.findAllResponses(pageable)).thenReturn(page);
 
         // Act
         taskService.findAll(null, null, 1L, true, pageable);
 
         // Assert
-        verify(taskRepository).findAll(pageable);
-        verify(taskRepository, never()).findByCompleted(anyBoolean(), any(Pageable.class));
-        verify(taskRepository, never()).findByUserId(anyLong(), any(Pageable.class));
-        verify(taskRepository, never()).findByUserIdAndCompleted(anyLong(), anyBoolean(), any(Pageable.class));
+        verify(taskRepository).findAllResponses(pageable);
+        verify(taskRepository, never()).findResponsesByCompleted(anyBoolean(), any(Pageable.class));
+        verify(taskRepository, never()).findResponsesByUserId(anyLong(), any(Pageable.class));
+        verify(taskRepository, never()).findResponsesByUserIdAndCompleted(anyLong(), anyBoolean(), any(Pageable.class));
     }
 
     @Test
@@ -68,40 +102,85 @@ public class TaskServiceTest {
 
         // Arrange
         Pageable pageable = PageRequest.of(0, 10);
-        Page<Task> page = new PageImpl<>(List.of());
+        List<TaskResponse> page = List.of();
         long currentUserId = 3L;
         long requestedUserId = 999L;
 
-        when(taskRepository.findByUserId(currentUserId, pageable)).thenReturn(page);
+        when(taskRepository.findResponsesByUserId(currentUserId, pageable)).thenReturn(page);
 
         // Act
         taskService.findAll(requestedUserId, null, currentUserId, false, pageable);
 
         // Assert
-        verify(taskRepository).findByUserId(currentUserId, pageable);
-        verify(taskRepository, never()).findAll(any(Pageable.class));
-        verify(taskRepository, never()).findByCompleted(anyBoolean(), any(Pageable.class));
-        verify(taskRepository, never()).findByUserIdAndCompleted(anyLong(), anyBoolean(), any(Pageable.class));
+        verify(taskRepository).findResponsesByUserId(currentUserId, pageable);
+        verify(taskRepository, never()).findAllResponses(any(Pageable.class));
+        verify(taskRepository, never()).findResponsesByCompleted(anyBoolean(), any(Pageable.class));
+        verify(taskRepository, never()).findResponsesByUserIdAndCompleted(anyLong(), anyBoolean(), any(Pageable.class));
     }
 
     @Test
-    void findAll_asAdminWithUserIdAndCompleted_callsFindByUserIdAndCompleted() {
+    void findAll_asAdminWithUserIdAndCompleted_callsFindResponsesByUserIdAndCompleted() {
 
         // Arrange
         Pageable pageable = PageRequest.of(0, 10);
-        Page<Task> page = new PageImpl<>(List.of());
+        List<TaskResponse> page = List.of();
         long requestedUserId = 7L;
 
-        when(taskRepository.findByUserIdAndCompleted(requestedUserId, true, pageable)).thenReturn(page);
+        when(taskRepository.findResponsesByUserIdAndCompleted(requestedUserId, true, pageable)).thenReturn(page);
 
         // Act
         taskService.findAll(requestedUserId, true, 1L, true, pageable);
 
         // Assert
-        verify(taskRepository).findByUserIdAndCompleted(requestedUserId, true, pageable);
-        verify(taskRepository, never()).findAll(any(Pageable.class));
-        verify(taskRepository, never()).findByCompleted(anyBoolean(), any(Pageable.class));
-        verify(taskRepository, never()).findByUserId(anyLong(), any(Pageable.class));
+        verify(taskRepository).findResponsesByUserIdAndCompleted(requestedUserId, true, pageable);
+        verify(taskRepository, never()).findAllResponses(any(Pageable.class));
+        verify(taskRepository, never()).findResponsesByCompleted(anyBoolean(), any(Pageable.class));
+        verify(taskRepository, never()).findResponsesByUserId(anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    void findAll_withFullPage_takesTotalFromCountersInsteadOfCountQuery() {
+
+        // Arrange
+        Pageable pageable = PageRequest.of(0, 2);
+        long currentUserId = 3L;
+        List<TaskResponse> rows = List.of(
+                new TaskResponse(10L, "a", true, currentUserId, Instant.now(), 0L),
+                new TaskResponse(9L, "b", true, currentUserId, Instant.now(), 0L)
+        );
+        TaskCounter counter = org.mockito.Mockito.mock(TaskCounter.class);
+        when(counter.getTotal()).thenReturn(12L);
+        when(counter.getCompleted()).thenReturn(5L);
+
+        when(taskRepository.findResponsesByUserIdAndCompleted(currentUserId, true, pageable)).thenReturn(rows);
+        when(taskCounterRepository.findById(currentUserId)).thenReturn(Optional.of(counter));
+
+        // Act
+        Page<TaskResponse> result = taskService.findAll(null, true, currentUserId, false, pageable);
+
+        // Assert
+        assertEquals(5L, result.getTotalElements());
+        assertEquals(3, result.getTotalPages());
+        assertEquals(rows, result.getContent());
+    }
+
+    @Test
+    void summary_asAdminWithoutUserId_sumsAllCounters() {
+
+        // Arrange
+        TaskCounterRepository.Totals totals = org.mockito.Mockito.mock(TaskCounterRepository.Totals.class);
+        when(totals.getTotal()).thenReturn(40L);
+        when(totals.getCompleted()).thenReturn(15L);
+        when(taskCounterRepository.sumAll()).thenReturn(totals);
+
+        // Act
+        TaskSummaryResponse summary = taskService.summary(null, 1L, true);
+
+        // Assert
+        assertNull(summary.userId());
+        assertEquals(40L, summary.total());
+        assertEquals(15L, summary.completed());
+        assertEquals(25L, summary.pending());
     }
 
     @Test
@@ -159,4 +238,269 @@ public class TaskServiceTest {
         verify(taskRepository, never()).save(any(Task.class));
     }
 
+    @Test
+    void findAllAfter_asUser_ignoresRequestedUserId_andReturnsNextCursorWhenMoreRowsExist() {
+
+        // Arrange
+        long currentUserId = 3L;
+        long requestedUserId = 999L;
+
+        Instant createdAt = Instant.parse("2026-01-01T10:00:00Z");
+        TaskResponse first = new TaskResponse(20L, "first", false, currentUserId, createdAt, 0L);
+        TaskResponse second = new TaskResponse(19L, "second", false, currentUserId, createdAt, 0L);
+        TaskResponse extra = new TaskResponse(18L, "extra", false, currentUserId, createdAt, 0L);
+
+        when(taskRepository.findSliceByUserIdAfter(anyLong(), any(Instant.class), anyLong(), any(Limit.class)))
+                .thenReturn(List.of(first, second, extra));
+
+        // Act
+        CursorPage<TaskResponse> result = taskService.findAllAfter(requestedUserId, null, currentUserId, false, null, 2, false);
+
+        // Assert
+        verify(taskRepository).findSliceByUserIdAfter(
+                org.mockito.ArgumentMatchers.eq(currentUserId), any(Instant.class), anyLong(),
+                org.mockito.ArgumentMatchers.eq(Limit.of(3)));
+        verify(taskRepository, never()).findSliceAfter(any(Instant.class), anyLong(), any(Limit.class));
+
+        assertEquals(2, result.size());
+        assertEquals(List.of(20L, 19L), result.content().stream().map(TaskResponse::id).toList());
+        assertEquals(new TaskCursor(createdAt, 19L), TaskCursor.decode(result.nextCursor()));
+    }
+
+    @Test
+    void findAllAfter_onLastSlice_returnsNoNextCursor() {
+
+        // Arrange
+        TaskCursor after = new TaskCursor(Instant.parse("2026-01-01T10:00:00Z"), 50L);
+        when(taskRepository.findSliceByCompletedAfter(true, after.createdAt(), after.id(), Limit.of(11)))
+                .thenReturn(List.of());
+
+        // Act
+        CursorPage<TaskResponse> result = taskService.findAllAfter(null, true, 1L, true, after.encode(), 10, false);
+
+        // Assert
+        assertEquals(0, result.size());
+        assertNull(result.nextCursor());
+    }
+
+    @Test
+    void findAllAfter_includingArchived_mergesBothSourcesInCursorOrder() {
+
+        // Arrange
+        long currentUserId = 3L;
+        Instant t = Instant.parse("2026-01-01T10:00:00Z");
+        TaskResponse hot1 = new TaskResponse(30L, "hot", true, currentUserId, t.plusSeconds(30), 0L);
+        TaskResponse hot2 = new TaskResponse(10L, "hot", true, currentUserId, t.plusSeconds(10), 0L);
+        TaskResponse archived1 = new TaskResponse(20L, "old", true, currentUserId, t.plusSeconds(20), 0L);
+        TaskResponse archived2 = new TaskResponse(5L, "old", true, currentUserId, t.plusSeconds(5), 0L);
+
+        when(taskRepository.findSliceByUserIdAfter(
+                org.mockito.ArgumentMatchers.eq(currentUserId), any(Instant.class), anyLong(),
+                org.mockito.ArgumentMatchers.eq(Limit.of(3))))
+                .thenReturn(List.of(hot1, hot2));
+        when(archivedTaskRepository.findSliceByUserIdAfter(
+                org.mockito.ArgumentMatchers.eq(currentUserId), any(Instant.class), anyLong(),
+                org.mockito.ArgumentMatchers.eq(Limit.of(3))))
+                .thenReturn(List.of(archived1, archived2));
+
+        // Act
+        CursorPage<TaskResponse> result = taskService.findAllAfter(null, null, currentUserId, false, null, 2, true);
+
+        // Assert
+        assertEquals(List.of(30L, 20L), result.content().stream().map(TaskResponse::id).toList());
+        assertEquals(TaskCursor.of(archived1), TaskCursor.decode(result.nextCursor()));
+    }
+
+    @Test
+    void findAllAfter_withMalformedCursor_throwsException() {
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> taskService.findAllAfter(null, null, 1L, true, "not-a-cursor", 10, false));
+
+        assertEquals("Invalid cursor", ex.getMessage());
+    }
+
+    @Test
+    void updateById_withStaleExpectedVersion_throwsPreconditionFailed() {
+
+        // Arrange
+        long currentUserId = 3L;
+        TaskResponse task = new TaskResponse(10L, "t", false, currentUserId, Instant.now(), 4L);
+
+        when(taskCache.peek(10L)).thenReturn(Optional.empty());
+        when(taskRepository.findResponseById(10L)).thenReturn(Optional.of(task));
+
+        // Act
+        assertThrows(PreconditionFailedException.class,
+                () -> taskService.updateById(10L, new TaskUpdateRequest(true, null), currentUserId, false, 3L));
+
+        // Assert
+        verify(taskRepository, never()).updateVersioned(anyLong(), any(), anyLong(), any(), anyBoolean());
+    }
+
+    @Test
+    void updateById_updatesByIdAndCreatedAt_andReturnsNextVersion() {
+
+        // Arrange
+        long currentUserId = 3L;
+        Instant createdAt = Instant.parse("2026-03-01T10:00:00Z");
+        TaskResponse task = new TaskResponse(10L, "t", false, currentUserId, createdAt, 4L);
+
+        when(taskCache.peek(10L)).thenReturn(Optional.empty());
+        when(taskRepository.findResponseById(10L)).thenReturn(Optional.of(task));
+        when(taskRepository.updateVersioned(10L, createdAt, 4L, "t", true)).thenReturn(1);
+
+        // Act
+        TaskResponse updated = taskService.updateById(10L, new TaskUpdateRequest(true, null), currentUserId, false, 4L).orElseThrow();
+
+        // Assert
+        assertEquals(new TaskResponse(10L, "t", true, currentUserId, createdAt, 5L), updated);
+        verify(taskCache).evict(10L);
+        verify(eventPublisher).publish(TaskEvent.Type.UPDATED, currentUserId, 10L);
+    }
+
+    @Test
+    void updateById_whenVersionMovedOnConcurrently_throwsPreconditionFailed() {
+
+        // Arrange
+        long currentUserId = 3L;
+        Instant createdAt = Instant.parse("2026-03-01T10:00:00Z");
+        TaskResponse task = new TaskResponse(10L, "t", false, currentUserId, createdAt, 4L);
+
+        when(taskCache.peek(10L)).thenReturn(Optional.empty());
+        when(taskRepository.findResponseById(10L)).thenReturn(Optional.of(task));
+        when(taskRepository.updateVersioned(10L, createdAt, 4L, "new", false)).thenReturn(0);
+
+        // Act + Assert
+        assertThrows(PreconditionFailedException.class,
+                () -> taskService.updateById(10L, new TaskUpdateRequest(null, "new"), currentUserId, false, null));
+        verify(taskCache, never()).evict(anyLong());
+    }
+
+    @Test
+    void createAll_resolvesEachOwnerOnce_andReturnsResultsInRequestOrder() {
+
+        // Arrange
+        long adminId = 1L;
+        long ownerId = 7L;
+        long missingId = 8L;
+        User owner = org.mockito.Mockito.mock(User.class);
+        when(owner.getId()).thenReturn(ownerId);
+
+        List<TaskCreateRequest> requests = List.of(
+                new TaskCreateRequest("first", ownerId),
+                new TaskCreateRequest("orphan", missingId),
+                new TaskCreateRequest("second", ownerId)
+        );
+
+        when(userRepository.findAllById(Set.of(ownerId, missingId))).thenReturn(List.of(owner));
+        when(taskRepository.saveAll(org.mockito.ArgumentMatchers.<List<Task>>any()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        List<TaskBatchItemResult> results = taskService.createAll(requests, adminId, true);
+
+        // Assert
+        verify(userRepository).findAllById(Set.of(ownerId, missingId));
+        verify(userRepository, never()).findById(anyLong());
+
+        assertEquals(List.of(0, 1, 2), results.stream().map(TaskBatchItemResult::index).toList());
+        assertEquals("first", results.get(0).task().title());
+        assertFalse(results.get(1).created());
+        assertEquals("User not found: 8", results.get(1).error());
+        assertEquals("second", results.get(2).task().title());
+    }
+
+    @Test
+    void updateAll_asUserWithFilter_forcesCurrentUserAsOwner() {
+
+        // Arrange
+        long currentUserId = 3L;
+        TaskBulkUpdateRequest request = new TaskBulkUpdateRequest(null, 999L, false, new TaskUpdateRequest(true, null));
+        when(taskRepository.updateByFilter(currentUserId, false, true, null)).thenReturn(5000);
+
+        // Act
+        long affected = taskService.updateAll(request, currentUserId, false);
+
+        // Assert
+        assertEquals(5000, affected);
+        verify(taskRepository).updateByFilter(currentUserId, false, true, null);
+        verify(taskCache).evictAll();
+    }
+
+    @Test
+    void updateAll_asAdminWithoutIdsOrFilter_throwsException() {
+
+        // Arrange
+        TaskBulkUpdateRequest request = new TaskBulkUpdateRequest(List.of(), null, null, new TaskUpdateRequest(true, null));
+
+        // Act
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> taskService.updateAll(request, 1L, true));
+
+        // Assert
+        assertEquals("ids or a filter (userId, completed) is required", ex.getMessage());
+        verify(taskRepository, never()).updateByFilter(any(), any(), any(), any());
+    }
+
+    @Test
+    void deleteById_asUser_usesSingleOwnershipAwareStatement() {
+
+        // Arrange
+        long currentUserId = 3L;
+        when(taskCache.peek(10L)).thenReturn(Optional.empty());
+        when(taskRepository.deleteOwned(10L, currentUserId, false)).thenReturn(0);
+
+        // Act
+        boolean deleted = taskService.deleteById(10L, currentUserId, false);
+
+        // Assert
+        assertFalse(deleted);
+        verify(taskRepository, never()).findById(anyLong());
+        verify(taskCache, never()).evict(anyLong());
+        verify(eventPublisher, never()).publish(any(), any(), anyLong());
+    }
+
+    @Test
+    void deleteAll_asUser_deletesOwnTasksInChunksUntilExhausted() {
+
+        // Arrange
+        long currentUserId = 3L;
+        when(taskRepository.deleteChunk(currentUserId, true, 1000)).thenReturn(1000, 1000, 250);
+
+        // Act
+        long deleted = taskService.deleteAll(999L, true, false, currentUserId, false);
+
+        // Assert
+        assertEquals(2250, deleted);
+        verify(taskRepository, org.mockito.Mockito.times(3)).deleteChunk(currentUserId, true, 1000);
+        verify(taskCache).evictAll();
+        verify(eventPublisher).publishUnlisted(TaskEvent.Type.DELETED, currentUserId);
+    }
+
+    @Test
+    void deleteAll_asAdminWithoutUserId_requiresAllUsers() {
+
+        // Act
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> taskService.deleteAll(null, false, false, 1L, true));
+
+        // Assert
+        assertEquals("userId is required, or allUsers=true to delete across all users", ex.getMessage());
+        verify(taskRepository, never()).deleteChunk(any(), anyBoolean(), anyInt());
+    }
+
+    @Test
+    void deleteAll_asAdminWithAllUsers_deletesAcrossUsers() {
+
+        // Arrange
+        when(taskRepository.deleteChunk(null, true, 1000)).thenReturn(5);
+
+        // Act
+        long deleted = taskService.deleteAll(null, true, true, 1L, true);
+
+        // Assert
+        assertEquals(5, deleted);
+        verify(eventPublisher).publishUnlisted(TaskEvent.Type.DELETED, null);
+    }
 }
@@ -0,0 +1,113 @@
+package io.viktor.backend.unit.tasks;
+
+import io.viktor.backend.tasks.TaskStreamRegistry;
+import io.viktor.backend.tasks.dto.TaskEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TaskStreamRegistryTest {
+
+    // Records the event names it sends; blocks in send() until released when created stalled
+    private static class RecordingEmitter extends SseEmitter {
+        final List<String> sent = new CopyOnWriteArrayList<>();
+        final CountDownLatch released;
+        final CountDownLatch firstSendStarted = new CountDownLatch(1);
+        final CountDownLatch completed = new CountDownLatch(1);
+
+        RecordingEmitter(boolean stalled) {
+            super(0L);
+            this.released = new CountDownLatch(stalled ? 1 : 0);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            firstSendStarted.countDown();
+            try {
+                released.await();
+            } catch (InterruptedException ex) {
+                throw new IOException(ex);
+            }
+            String text = builder.build().stream()
+                    .map(data -> String.valueOf(data.getData()))
+                    .collect(Collectors.joining());
+            int start = text.indexOf("event:");
+            sent.add(start < 0 ? text.trim() : text.substring(start + 6, text.indexOf('\n', start)));
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+    }
+
+    private static TaskStreamRegistry registryWith(int queueCapacity, RecordingEmitter... emitters) {
+        Queue<RecordingEmitter> next = new ArrayDeque<>(List.of(emitters));
+        return new TaskStreamRegistry(Duration.ofMinutes(30), queueCapacity) {
+            @Override
+            protected SseEmitter newEmitter(long timeoutMillis) {
+                return next.remove();
+            }
+        };
+    }
+
+    @Test
+    void dispatch_withStalledSubscriber_stillDeliversToOthers() throws Exception {
+
+        // Arrange
+        RecordingEmitter stalled = new RecordingEmitter(true);
+        RecordingEmitter healthy = new RecordingEmitter(false);
+        TaskStreamRegistry registry = registryWith(16, stalled, healthy);
+        registry.subscribe(1L, true);
+        registry.subscribe(1L, true);
+
+        // Act
+        registry.dispatch(new TaskEvent(TaskEvent.Type.CREATED, 1L, List.of(10L)));
+        assertTrue(stalled.firstSendStarted.await(5, TimeUnit.SECONDS));
+        registry.dispatch(new TaskEvent(TaskEvent.Type.UPDATED, 1L, List.of(10L)));
+
+        // Assert
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (healthy.sent.size() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(List.of("created", "updated"), healthy.sent);
+        assertEquals(2, registry.size());
+        stalled.released.countDown();
+    }
+
+    @Test
+    void dispatch_beyondQueueCapacity_sendsResyncAndDropsSubscriber() throws Exception {
+
+        // Arrange
+        RecordingEmitter stalled = new RecordingEmitter(true);
+        TaskStreamRegistry registry = registryWith(2, stalled);
+        registry.subscribe(1L, false);
+
+        // Act: one event in flight, two queued, the fourth overflows
+        registry.dispatch(new TaskEvent(TaskEvent.Type.CREATED, 1L, List.of(10L)));
+        assertTrue(stalled.firstSendStarted.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 3; i++) {
+            registry.dispatch(new TaskEvent(TaskEvent.Type.UPDATED, 1L, List.of(10L)));
+        }
+        registry.dispatch(new TaskEvent(TaskEvent.Type.DELETED, 1L, List.of(10L)));
+        stalled.released.countDown();
+
+        // Assert
+        assertTrue(stalled.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("created", "resync"), stalled.sent);
+        assertEquals(0, registry.size());
+    }
+}